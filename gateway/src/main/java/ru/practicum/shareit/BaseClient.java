@@ -1,21 +1,53 @@
 package ru.practicum.shareit;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import javax.servlet.http.HttpServletRequest;
+
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseClient {
 
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "te", "trailer", "upgrade", "proxy-authenticate", "proxy-authorization");
+    private static final List<String> CONDITIONAL_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MATCH);
+
     protected final RestTemplate rest;
+    private boolean passThrough = true;
+    @Nullable
+    private ServerResponseCache responseCache;
 
     public BaseClient(RestTemplate rest) {
         this.rest = rest;
     }
 
+    @Autowired
+    public void setPassThrough(@Value("${shareit-server.pass-through:true}") boolean passThrough) {
+        this.passThrough = passThrough;
+    }
+
+    @Autowired(required = false)
+    public void setResponseCache(ServerResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
     protected ResponseEntity<Object> get(String path) {
         return get(path, null, null);
     }
@@ -28,6 +60,20 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<Object> cachedGet(String cacheName, ResponseKey key, String path, Long userId,
+                                               @Nullable Map<String, Object> parameters) {
+        if (responseCache == null || !responseCache.isEnabled()) {
+            return get(path, userId, parameters);
+        }
+        HttpHeaders headers = defaultHeaders(userId);
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        // в кэш нужен полный ответ, If-None-Match сверяется с его ETag уже в шлюзе
+        headers.remove(HttpHeaders.IF_NONE_MATCH);
+        HttpEntity<?> requestEntity = new HttpEntity<>(headers);
+        return responseCache.get(cacheName, key, ifNoneMatch,
+                () -> passThrough(HttpMethod.GET, path, parameters, requestEntity));
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -80,8 +126,18 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<Resource> stream(String path, Long userId) {
+        HttpHeaders headers = defaultHeaders(userId);
+        headers.setAccept(List.of(MediaType.ALL));
+        return passThrough(HttpMethod.GET, path, null, new HttpEntity<>(headers));
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        if (passThrough) {
+            ResponseEntity<Resource> response = passThrough(method, path, parameters, requestEntity);
+            return new ResponseEntity<>(response.getBody(), response.getHeaders(), response.getStatusCode());
+        }
 
         ResponseEntity<Object> shareitServerResponse;
         try {
@@ -93,9 +149,47 @@ public class BaseClient {
         } catch (HttpStatusCodeException e) {
             return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
+        invalidateCache(shareitServerResponse.getHeaders());
         return prepareGatewayResponse(shareitServerResponse);
     }
 
+    private ResponseEntity<Resource> passThrough(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                                 HttpEntity<?> requestEntity) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+            rest.httpEntityCallback(requestEntity).doWithRequest(request);
+            ClientHttpResponse response = request.execute();
+            invalidateCache(response.getHeaders());
+
+            HttpHeaders headers = new HttpHeaders();
+            response.getHeaders().forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())
+                        && !ServerResponseCache.INVALIDATE_HEADER.equalsIgnoreCase(name)) {
+                    headers.addAll(name, values);
+                }
+            });
+            if (headers.getContentType() == null) {
+                response.close();
+                return ResponseEntity.status(response.getRawStatusCode()).headers(headers).build();
+            }
+            // тело не читается здесь: поток сервера копируется клиенту по мере записи ответа
+            return ResponseEntity.status(response.getRawStatusCode())
+                    .headers(headers)
+                    .body(new InputStreamResource(response.getBody()));
+        } catch (IOException e) {
+            throw new ResourceAccessException("Ошибка при обращении к серверу: " + e.getMessage(), e);
+        }
+    }
+
+    private void invalidateCache(HttpHeaders serverHeaders) {
+        if (responseCache != null) {
+            responseCache.invalidate(serverHeaders.get(ServerResponseCache.INVALIDATE_HEADER));
+        }
+    }
+
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -103,6 +197,17 @@ public class BaseClient {
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        // условные заголовки клиента передаются серверу, чтобы он мог ответить 304 без тела
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+            for (String name : CONDITIONAL_HEADERS) {
+                String value = request.getHeader(name);
+                if (value != null) {
+                    headers.set(name, value);
+                }
+            }
+        }
         return headers;
     }
 
@@ -112,6 +217,9 @@ public class BaseClient {
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        if (response.getHeaders().getETag() != null) {
+            responseBuilder.eTag(response.getHeaders().getETag());
+        }
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
@@ -0,0 +1,30 @@
+package ru.practicum.shareit;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+// параметры страницы общие для обычных и реактивных контроллеров, чтобы правила проверки не расходились
+@Getter
+@Setter
+public class PageParams {
+    @PositiveOrZero
+    private Integer from = 0;
+    @Positive
+    private Integer size = defaultSize();
+
+    // пустые ?from= и ?size= приходят как null: оставляем значения по умолчанию, а не передаем null дальше
+    public void setFrom(Integer from) {
+        this.from = from == null ? 0 : from;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size == null ? defaultSize() : size;
+    }
+
+    protected Integer defaultSize() {
+        return 10;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+@Profile("reactive")
+@Component
+public class ReactiveServerProxy {
+    private static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private static final List<String> CONDITIONAL_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MATCH);
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "transfer-encoding",
+            "te", "trailer", "upgrade", "proxy-authenticate", "proxy-authorization");
+
+    private final WebClient webClient;
+    private final String serverUrl;
+
+    public ReactiveServerProxy(WebClient serverWebClient, @Value("${shareit-server.url}") String serverUrl) {
+        this.webClient = serverWebClient;
+        this.serverUrl = serverUrl;
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forward(ServerHttpRequest request) {
+        return forward(request, null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> forward(ServerHttpRequest request, @Nullable Object body) {
+        String query = request.getURI().getRawQuery();
+        URI uri = URI.create(serverUrl + request.getPath().pathWithinApplication().value()
+                + (query != null ? "?" + query : ""));
+        List<MediaType> accept = request.getHeaders().getAccept();
+
+        WebClient.RequestBodySpec spec = webClient.method(request.getMethod())
+                .uri(uri)
+                .headers(headers -> {
+                    headers.setAccept(accept.isEmpty() ? List.of(MediaType.ALL) : accept);
+                    String userId = request.getHeaders().getFirst(USER_ID_HEADER);
+                    if (userId != null) {
+                        headers.set(USER_ID_HEADER, userId);
+                    }
+                    for (String name : CONDITIONAL_HEADERS) {
+                        List<String> values = request.getHeaders().get(name);
+                        if (values != null) {
+                            headers.put(name, values);
+                        }
+                    }
+                });
+        WebClient.RequestHeadersSpec<?> exchange = body != null
+                ? spec.contentType(MediaType.APPLICATION_JSON).bodyValue(body)
+                : spec;
+        return exchange.retrieve()
+                // ошибки сервера передаются клиенту как есть, вместе со статусом и телом
+                .onStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    response.getHeaders().forEach((name, values) -> {
+                        if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())
+                                && !"X-Shareit-Invalidate".equalsIgnoreCase(name)) {
+                            headers.addAll(name, values);
+                        }
+                    });
+                    return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+                });
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit;
+
+import lombok.Value;
+
+@Value
+public class ResponseKey {
+    // id сущности для точечной инвалидации, null для поиска
+    Long id;
+    String query;
+    // null, если ответ не зависит от пользователя
+    Long userId;
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@Profile("!reactive")
+public class ServerResponseCache {
+    public static final String INVALIDATE_HEADER = "X-Shareit-Invalidate";
+    public static final String ITEMS = "shareit-items";
+    public static final String SEARCH = "shareit-search";
+    public static final String REQUESTS = "shareit-requests";
+
+    private final boolean enabled;
+    private final Cache<ResponseKey, CachedResponse> items;
+    private final Cache<ResponseKey, CachedResponse> search;
+    private final Cache<ResponseKey, CachedResponse> requests;
+    private final Map<String, Cache<ResponseKey, CachedResponse>> caches;
+    // увеличивается при каждой инвалидации, чтобы не сохранить ответ, прочитанный до изменения
+    private final AtomicLong generation = new AtomicLong();
+
+    public ServerResponseCache(ServerResponseCacheProperties properties) {
+        enabled = properties.isEnabled();
+        // общий бюджет делится поровну, чтобы три кэша вместе не превышали max-weight
+        long maxWeight = properties.getMaxWeight().toBytes() / 3;
+        items = build(maxWeight, properties.getItemTtl());
+        search = build(maxWeight, properties.getSearchTtl());
+        requests = build(maxWeight, properties.getRequestTtl());
+        caches = Map.of(ITEMS, items, SEARCH, search, REQUESTS, requests);
+    }
+
+    private static Cache<ResponseKey, CachedResponse> build(long maxWeight, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((ResponseKey key, CachedResponse response) -> response.body.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ResponseEntity<Object> get(String name, ResponseKey key, Supplier<ResponseEntity<Resource>> loader) {
+        return get(name, key, List.of(), loader);
+    }
+
+    // If-None-Match клиента сравнивается с ETag закэшированного ответа, сервер при совпадении не вызывается
+    public ResponseEntity<Object> get(String name, ResponseKey key, List<String> ifNoneMatch,
+                                      Supplier<ResponseEntity<Resource>> loader) {
+        if (!enabled) {
+            return toObjectEntity(loader.get());
+        }
+        Cache<ResponseKey, CachedResponse> cache = caches.get(name);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.toResponseEntity(ifNoneMatch);
+        }
+        long loadedGeneration = generation.get();
+        ResponseEntity<Resource> response = loader.get();
+        if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+            return toObjectEntity(response);
+        }
+        try (InputStream body = response.getBody().getInputStream()) {
+            cached = new CachedResponse(HttpHeaders.readOnlyHttpHeaders(response.getHeaders()), body.readAllBytes());
+        } catch (IOException e) {
+            throw new ResourceAccessException("Ошибка при чтении ответа сервера: " + e.getMessage(), e);
+        }
+        if (generation.get() == loadedGeneration) {
+            cache.put(key, cached);
+        }
+        return cached.toResponseEntity(ifNoneMatch);
+    }
+
+    public void invalidate(@Nullable List<String> headerValues) {
+        if (headerValues == null || headerValues.isEmpty()) {
+            return;
+        }
+        generation.incrementAndGet();
+        for (String value : headerValues) {
+            for (String tag : value.split(",")) {
+                invalidateTag(tag.trim());
+            }
+        }
+    }
+
+    private void invalidateTag(String tag) {
+        log.debug("Инвалидация кэша ответов сервера: {}", tag);
+        String[] parts = tag.split(":", 2);
+        if (parts.length == 2 && parts[0].equals("item")) {
+            Long itemId = Long.valueOf(parts[1]);
+            items.asMap().keySet().removeIf(key -> itemId.equals(key.getId()));
+            // в результатах поиска могут быть любые вещи
+            search.invalidateAll();
+        } else if (parts.length == 2 && parts[0].equals("request")) {
+            Long requestId = Long.valueOf(parts[1]);
+            requests.asMap().keySet().removeIf(key -> requestId.equals(key.getId()));
+        } else {
+            // изменения пользователя попадают в отзывы и каскадно удаляют вещи и запросы
+            caches.values().forEach(Cache::invalidateAll);
+        }
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        caches.forEach((name, cache) -> CaffeineCacheMetrics.monitor(registry, cache, name));
+    }
+
+    private static ResponseEntity<Object> toObjectEntity(ResponseEntity<Resource> response) {
+        return new ResponseEntity<>(response.getBody(), response.getHeaders(), response.getStatusCode());
+    }
+
+    private static class CachedResponse {
+        private final HttpHeaders headers;
+        private final byte[] body;
+
+        CachedResponse(HttpHeaders headers, byte[] body) {
+            this.headers = headers;
+            this.body = body;
+        }
+
+        ResponseEntity<Object> toResponseEntity(List<String> ifNoneMatch) {
+            String etag = headers.getETag();
+            if (etag != null && matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return new ResponseEntity<>(body, headers, HttpStatus.OK);
+        }
+
+        // для If-None-Match теги сравниваются без учета признака слабого ETag
+        private static boolean matches(List<String> ifNoneMatch, String etag) {
+            String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+            for (String candidate : ifNoneMatch) {
+                String opaqueCandidate = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+                if (candidate.equals("*") || opaqueTag.equals(opaqueCandidate)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
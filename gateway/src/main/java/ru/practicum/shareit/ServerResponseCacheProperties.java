@@ -0,0 +1,22 @@
+package ru.practicum.shareit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.cache")
+public class ServerResponseCacheProperties {
+    private boolean enabled = true;
+    // ограничение суммарного размера тел ответов во всех кэшах, каждому достается треть
+    private DataSize maxWeight = DataSize.ofMegabytes(16);
+    // X-Shareit-Invalidate получает только экземпляр шлюза, через который прошло изменение, поэтому при
+    // нескольких экземплярах TTL не должен превышать допустимую задержку изменений
+    private Duration itemTtl = Duration.ofSeconds(30);
+    private Duration searchTtl = Duration.ofSeconds(10);
+    private Duration requestTtl = Duration.ofSeconds(60);
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Configuration
+@Profile("virtual-threads & !reactive")
+public class VirtualThreadsConfig {
+    // шлюзу виртуальные потоки нужны только в Tomcat, асинхронных ответов у него нет
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            try {
+                protocolHandler.setExecutor((Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null));
+            } catch (ReflectiveOperationException e) {
+                log.warn("Виртуальные потоки недоступны в Java {}, запросы обрабатываются пулом Tomcat",
+                        Runtime.version().feature());
+            }
+        };
+    }
+}
@@ -3,16 +3,19 @@ package ru.practicum.shareit.booking.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.dto.State;
 
+import java.util.List;
 import java.util.Map;
 
+@Profile("!reactive")
 @Service
 public class BookingClient extends BaseClient {
 
@@ -21,7 +24,6 @@ public class BookingClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + "/bookings"))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
     }
@@ -35,17 +37,29 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters);
     }
 
+    public ResponseEntity<Object> changeStatuses(List<BookingDecisionDto> decisions, Long userId) {
+        return patch("", userId, decisions);
+    }
+
     public ResponseEntity<Object> findById(Long bookingId, Long userId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> findAllByUser(Integer from, Integer size, Long userId, State state) {
-        Map<String, Object> parameters = Map.of("state", state.name(), "from", from, "size", size);
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> findAllByUser(Integer from, Integer size, String cursor, Long userId, State state) {
+        return findAll("", from, size, cursor, userId, state);
+    }
+
+    public ResponseEntity<Object> findAllByOwner(Integer from, Integer size, String cursor, Long userId, State state) {
+        return findAll("/owner", from, size, cursor, userId, state);
     }
 
-    public ResponseEntity<Object> findAllByOwner(Integer from, Integer size, Long userId, State state) {
+    private ResponseEntity<Object> findAll(String path, Integer from, Integer size, String cursor, Long userId,
+                                           State state) {
+        if (cursor != null) {
+            Map<String, Object> parameters = Map.of("state", state.name(), "size", size, "cursor", cursor);
+            return get(path + "?state={state}&size={size}&cursor={cursor}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of("state", state.name(), "from", from, "size", size);
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
     }
 }
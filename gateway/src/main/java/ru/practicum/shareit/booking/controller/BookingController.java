@@ -1,18 +1,23 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingSearchParams;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
-import ru.practicum.shareit.booking.dto.State;
 
 import javax.validation.Valid;
-import javax.validation.constraints.Positive;
-import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
 
+@Profile("!reactive")
 @Validated
 @Component
 @RestController
@@ -36,24 +41,29 @@ public class BookingController {
         return bookingClient.changeStatus(bookingId, userId, approved);
     }
 
+    @PatchMapping
+    public ResponseEntity<Object> approveAll(@RequestBody @NotEmpty @Size(max = BookingDecisionDto.MAX_BATCH_SIZE)
+                                             List<@NotNull @Valid BookingDecisionDto> decisions,
+                                             @RequestHeader(value = userIdHeader) Long userId) {
+        return bookingClient.changeStatuses(decisions, userId);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> find(@PathVariable Long bookingId, @RequestHeader(value = userIdHeader) Long userId) {
         return bookingClient.findById(bookingId, userId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllByUser(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                @RequestParam(defaultValue = "10") @Positive Integer size,
-                                                @RequestParam(required = false, defaultValue = "ALL") String state,
+    public ResponseEntity<Object> findAllByUser(@Valid BookingSearchParams search,
                                                 @RequestHeader(value = userIdHeader) Long userId) {
-        return bookingClient.findAllByUser(from, size, userId, State.validateState(state));
+        return bookingClient.findAllByUser(search.getFrom(), search.getSize(), search.getCursor(), userId,
+                search.validState());
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> findAllUserItems(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                   @RequestParam(defaultValue = "10") @Positive Integer size,
-                                                   @RequestParam(required = false, defaultValue = "ALL") String state,
+    public ResponseEntity<Object> findAllUserItems(@Valid BookingSearchParams search,
                                                    @RequestHeader(value = userIdHeader) Long userId) {
-        return bookingClient.findAllByOwner(from, size, userId, State.validateState(state));
+        return bookingClient.findAllByOwner(search.getFrom(), search.getSize(), search.getCursor(), userId,
+                search.validState());
     }
 }
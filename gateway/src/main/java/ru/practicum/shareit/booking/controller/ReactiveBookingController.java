@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.ReactiveServerProxy;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingSearchParams;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Profile("reactive")
+@Validated
+@RestController
+@RequestMapping(path = "/bookings")
+@RequiredArgsConstructor
+public class ReactiveBookingController {
+
+    private final ReactiveServerProxy proxy;
+    private final String userIdHeader = "X-Sharer-User-Id";
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@Valid @RequestBody CreateBookingDto bookingDto,
+                                                         @RequestHeader(value = userIdHeader) Long userId,
+                                                         ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, bookingDto);
+    }
+
+    @PatchMapping("/{bookingId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approve(@PathVariable Long bookingId,
+                                                          @RequestParam Boolean approved,
+                                                          @RequestHeader(value = userIdHeader) Long userId,
+                                                          ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @PatchMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> approveAll(@RequestBody @NotEmpty
+                                                             @Size(max = BookingDecisionDto.MAX_BATCH_SIZE)
+                                                             List<@NotNull @Valid BookingDecisionDto> decisions,
+                                                             @RequestHeader(value = userIdHeader) Long userId,
+                                                             ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, decisions);
+    }
+
+    @GetMapping("/{bookingId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> find(@PathVariable Long bookingId,
+                                                       @RequestHeader(value = userIdHeader) Long userId,
+                                                       ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllByUser(@Valid BookingSearchParams search,
+                                                                @RequestHeader(value = userIdHeader) Long userId,
+                                                                ServerHttpRequest httpRequest) {
+        search.validState();
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping("/owner")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllUserItems(@Valid BookingSearchParams search,
+                                                                   @RequestHeader(value = userIdHeader) Long userId,
+                                                                   ServerHttpRequest httpRequest) {
+        search.validState();
+        return proxy.forward(httpRequest);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+@AllArgsConstructor
+public class BookingDecisionDto {
+    public static final int MAX_BATCH_SIZE = 100;
+
+    @NotNull
+    private Long bookingId;
+    @NotNull
+    private Boolean approved;
+}
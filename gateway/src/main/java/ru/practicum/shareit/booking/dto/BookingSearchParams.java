@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.practicum.shareit.PageParams;
+
+@Getter
+@Setter
+public class BookingSearchParams extends PageParams {
+    private String state = "ALL";
+    private String cursor;
+
+    public State validState() {
+        return State.validateState(state);
+    }
+}
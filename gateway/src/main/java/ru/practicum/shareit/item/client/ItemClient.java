@@ -3,16 +3,19 @@ package ru.practicum.shareit.item.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
+import ru.practicum.shareit.ResponseKey;
+import ru.practicum.shareit.ServerResponseCache;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
 import java.util.Map;
 
+@Profile("!reactive")
 @Service
 public class ItemClient extends BaseClient {
 
@@ -21,23 +24,30 @@ public class ItemClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + "/items"))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
     }
 
-    public ResponseEntity<Object> findAllByUser(Integer from, Integer size, Long userId) {
+    public ResponseEntity<Object> findAllByUser(Integer from, Integer size, Long lastId, Long userId) {
+        if (lastId != null) {
+            Map<String, Object> parameters = Map.of("from", from, "size", size, "lastId", lastId);
+            return get("?from={from}&size={size}&lastId={lastId}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of("from", from, "size", size);
         return get("?from={from}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> findAllByText(Integer from, Integer size, String text, Long userId) {
         Map<String, Object> parameters = Map.of("text", text, "from", from, "size", size);
-        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        // владелец найденной вещи видит ее ближайшие бронирования, поэтому ключ включает пользователя
+        ResponseKey key = new ResponseKey(null, text + "&from=" + from + "&size=" + size, userId);
+        return cachedGet(ServerResponseCache.SEARCH, key, "/search?text={text}&from={from}&size={size}", userId,
+                parameters);
     }
 
     public ResponseEntity<Object> findDtoById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+        return cachedGet(ServerResponseCache.ITEMS, new ResponseKey(itemId, null, userId), "/" + itemId, userId,
+                null);
     }
 
     public ResponseEntity<Object> createItem(ItemDto itemDto, Long userId) {
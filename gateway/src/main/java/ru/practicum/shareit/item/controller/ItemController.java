@@ -1,17 +1,19 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPageParams;
+import ru.practicum.shareit.item.dto.ItemSearchParams;
 
 import javax.validation.Valid;
-import javax.validation.constraints.Positive;
-import javax.validation.constraints.PositiveOrZero;
 
+@Profile("!reactive")
 @Validated
 @RestController
 @RequestMapping("/items")
@@ -21,18 +23,15 @@ public class ItemController {
     private final String userIdHeader = "X-Sharer-User-Id";
 
     @GetMapping
-    public ResponseEntity<Object> findAllByUser(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                @RequestParam(defaultValue = "10") @Positive Integer size,
+    public ResponseEntity<Object> findAllByUser(@Valid ItemPageParams page,
                                                 @RequestHeader(value = userIdHeader) Long userId) {
-        return itemClient.findAllByUser(from, size, userId);
+        return itemClient.findAllByUser(page.getFrom(), page.getSize(), page.getLastId(), userId);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> findAllByText(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                @RequestParam(defaultValue = "10") @Positive Integer size,
-                                                @RequestParam String text,
+    public ResponseEntity<Object> findAllByText(@Valid ItemSearchParams search,
                                                 @RequestHeader(value = userIdHeader) Long userId) {
-        return itemClient.findAllByText(from, size, text, userId);
+        return itemClient.findAllByText(search.getFrom(), search.getSize(), search.getText(), userId);
     }
 
     @GetMapping("/{itemId}")
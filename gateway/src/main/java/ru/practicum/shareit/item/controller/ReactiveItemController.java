@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.ReactiveServerProxy;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemPageParams;
+import ru.practicum.shareit.item.dto.ItemSearchParams;
+
+import javax.validation.Valid;
+
+@Profile("reactive")
+@Validated
+@RestController
+@RequestMapping("/items")
+@RequiredArgsConstructor
+public class ReactiveItemController {
+    private final ReactiveServerProxy proxy;
+    private final String userIdHeader = "X-Sharer-User-Id";
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllByUser(@Valid ItemPageParams page,
+                                                                @RequestHeader(value = userIdHeader) Long userId,
+                                                                ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllByText(@Valid ItemSearchParams search,
+                                                                @RequestHeader(value = userIdHeader) Long userId,
+                                                                ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> find(@PathVariable Long itemId,
+                                                       @RequestHeader(value = userIdHeader) Long userId,
+                                                       ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@Valid @RequestBody ItemDto item,
+                                                         @RequestHeader(value = userIdHeader) Long userId,
+                                                         ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, item);
+    }
+
+    @PatchMapping("/{itemId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(@PathVariable Long itemId, @RequestBody ItemDto itemDto,
+                                                         @RequestHeader(value = userIdHeader) Long userId,
+                                                         ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, itemDto);
+    }
+
+    @DeleteMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> delete(@Valid @RequestBody ItemDto item,
+                                                         @RequestHeader(value = userIdHeader) Long userId,
+                                                         ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, item);
+    }
+
+    @PostMapping("/{itemId}/comment")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createComment(@PathVariable Long itemId,
+                                                                @Valid @RequestBody CommentDto commentDto,
+                                                                @RequestHeader(value = userIdHeader) Long userId,
+                                                                ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, commentDto);
+    }
+}
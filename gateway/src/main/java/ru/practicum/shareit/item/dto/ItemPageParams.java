@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.practicum.shareit.PageParams;
+
+import javax.validation.constraints.PositiveOrZero;
+
+@Getter
+@Setter
+public class ItemPageParams extends PageParams {
+    @PositiveOrZero
+    private Long lastId;
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.practicum.shareit.PageParams;
+
+import javax.validation.constraints.NotNull;
+
+@Getter
+@Setter
+public class ItemSearchParams extends PageParams {
+    @NotNull
+    private String text;
+}
@@ -3,15 +3,19 @@ package ru.practicum.shareit.request.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
+import ru.practicum.shareit.ResponseKey;
+import ru.practicum.shareit.ServerResponseCache;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 import java.util.Map;
 
+@Profile("!reactive")
 @Service
 public class RequestClient extends BaseClient {
 
@@ -20,7 +24,6 @@ public class RequestClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + "/requests"))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
     }
@@ -30,17 +33,27 @@ public class RequestClient extends BaseClient {
     }
 
 
-    public ResponseEntity<Object> findAllByOwnerWithResponses(Long userId) {
+    public ResponseEntity<Object> findAllByOwnerWithResponses(Integer from, Integer size, Long userId) {
+        if (size != null) {
+            Map<String, Object> parameters = Map.of("from", from, "size", size);
+            return get("?from={from}&size={size}", userId, parameters);
+        }
         return get("", userId);
     }
 
 
+    public ResponseEntity<Resource> streamAllByOwnerWithResponses(Long userId) {
+        return stream("/stream", userId);
+    }
+
     public ResponseEntity<Object> findAll(Integer from, Integer size, Long userId) {
         Map<String, Object> parameters = Map.of("from", from, "size", size);
         return get("/all", userId, parameters);
     }
 
     public ResponseEntity<Object> findByIdWithResponses(Long requestId, Long userId) {
-        return get("/" + requestId, userId);
+        // сервер отвечает 404 несуществующему пользователю, поэтому ключ включает пользователя
+        return cachedGet(ServerResponseCache.REQUESTS, new ResponseKey(requestId, null, userId), "/" + requestId,
+                userId, null);
     }
 }
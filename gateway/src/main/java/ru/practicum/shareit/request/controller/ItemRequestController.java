@@ -1,16 +1,19 @@
 package ru.practicum.shareit.request.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.PageParams;
 import ru.practicum.shareit.request.client.RequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.OwnerRequestsParams;
 
 import javax.validation.Valid;
-import javax.validation.constraints.Positive;
-import javax.validation.constraints.PositiveOrZero;
 
+@Profile("!reactive")
 @Validated
 @RestController
 @RequestMapping(path = "/requests")
@@ -27,15 +30,20 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> findAllByOwnerWithResponses(@RequestHeader(value = userIdHeader) Long userId) {
-        return requestClient.findAllByOwnerWithResponses(userId);
+    public ResponseEntity<Object> findAllByOwnerWithResponses(@Valid OwnerRequestsParams page,
+                                                              @RequestHeader(value = userIdHeader) Long userId) {
+        return requestClient.findAllByOwnerWithResponses(page.getFrom(), page.getSize(), userId);
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<Resource> streamAllByOwnerWithResponses(@RequestHeader(value = userIdHeader) Long userId) {
+        return requestClient.streamAllByOwnerWithResponses(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> findAll(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                          @RequestParam(defaultValue = "10") @Positive Integer size,
+    public ResponseEntity<Object> findAll(@Valid PageParams page,
                                           @RequestHeader(value = userIdHeader) Long userId) {
-        return requestClient.findAll(from, size, userId);
+        return requestClient.findAll(page.getFrom(), page.getSize(), userId);
     }
 
     @GetMapping("/{requestId}")
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.request.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.PageParams;
+import ru.practicum.shareit.ReactiveServerProxy;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.OwnerRequestsParams;
+
+import javax.validation.Valid;
+
+@Profile("reactive")
+@Validated
+@RestController
+@RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+public class ReactiveItemRequestController {
+
+    private final ReactiveServerProxy proxy;
+    private final String userIdHeader = "X-Sharer-User-Id";
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@Valid @RequestBody ItemRequestDto request,
+                                                         @RequestHeader(value = userIdHeader) Long userId,
+                                                         ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, request);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAllByOwnerWithResponses(@Valid OwnerRequestsParams page,
+                                                                              @RequestHeader(value = userIdHeader) Long userId,
+                                                                              ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping("/stream")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamAllByOwnerWithResponses(@RequestHeader(value = userIdHeader) Long userId,
+                                                                                ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping("/all")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAll(@Valid PageParams page,
+                                                          @RequestHeader(value = userIdHeader) Long userId,
+                                                          ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping("/{requestId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findByIdWithResponses(@PathVariable Long requestId,
+                                                                        @RequestHeader(value = userIdHeader) Long userId,
+                                                                        ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+}
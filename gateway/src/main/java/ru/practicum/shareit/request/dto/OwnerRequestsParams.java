@@ -0,0 +1,11 @@
+package ru.practicum.shareit.request.dto;
+
+import ru.practicum.shareit.PageParams;
+
+public class OwnerRequestsParams extends PageParams {
+    // без size сервер возвращает все запросы пользователя
+    @Override
+    protected Integer defaultSize() {
+        return null;
+    }
+}
@@ -3,13 +3,14 @@ package ru.practicum.shareit.user.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+@Profile("!reactive")
 @Service
 public class UserClient extends BaseClient {
 
@@ -18,7 +19,6 @@ public class UserClient extends BaseClient {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + "/users"))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
     }
@@ -42,4 +42,4 @@ public class UserClient extends BaseClient {
     public ResponseEntity<Object> deleteById(Long id) {
         return delete("/" + id);
     }
-}
\ No newline at end of file
+}
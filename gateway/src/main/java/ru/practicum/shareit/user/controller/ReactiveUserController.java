@@ -0,0 +1,49 @@
+package ru.practicum.shareit.user.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.ReactiveServerProxy;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import javax.validation.Valid;
+
+@Profile("reactive")
+@RestController
+@RequestMapping(path = "/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private final ReactiveServerProxy proxy;
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findAll(ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> find(@PathVariable Long userId, ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Flux<DataBuffer>>> create(@Valid @RequestBody UserDto userDto,
+                                                         ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, userDto);
+    }
+
+    @PatchMapping(path = "/{userId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> update(@PathVariable Long userId, @Valid @RequestBody UserDto userDto,
+                                                         ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest, userDto);
+    }
+
+    @DeleteMapping(path = "/{userId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteById(@PathVariable Long userId, ServerHttpRequest httpRequest) {
+        return proxy.forward(httpRequest);
+    }
+}
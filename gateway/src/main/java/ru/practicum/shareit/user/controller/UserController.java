@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.user.client.UserClient;
@@ -8,6 +9,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 
 import javax.validation.Valid;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping(path = "/users")
 @AllArgsConstructor
@@ -38,4 +40,4 @@ public class UserController {
     public void deleteById(@PathVariable Long userId) {
         userClient.deleteById(userId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureMockRestServiceServer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMockRestServiceServer
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class PassThroughTests {
+    // пробелы потерялись бы при разборе и повторной сериализации ответа
+    private static final String USERS = "[ {\"id\": 1, \"name\": \"User\", \"email\": \"user@mail.com\"} ]";
+
+    private final MockMvc mvc;
+    private final UserClient userClient;
+    private final MockServerRestTemplateCustomizer servers;
+
+    @BeforeEach
+    void init() {
+        servers.getServer(userClient.rest)
+                .expect(ExpectedCount.manyTimes(), requestTo("http://localhost:9090/users"))
+                .andRespond(withSuccess(USERS, MediaType.APPLICATION_JSON));
+    }
+
+    @AfterEach
+    void clean() {
+        userClient.setPassThrough(true);
+        servers.getServer(userClient.rest).reset();
+    }
+
+    private String findAll() throws Exception {
+        return mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    @Test
+    void passThroughKeepsServerBodyTest() throws Exception {
+        assertInstanceOf(Resource.class, userClient.findAll().getBody());
+        assertEquals(USERS, findAll());
+    }
+
+    @Test
+    void bufferedModeParsesServerBodyTest() throws Exception {
+        userClient.setPassThrough(false);
+
+        assertInstanceOf(List.class, userClient.findAll().getBody());
+        assertNotEquals(USERS, findAll());
+    }
+}
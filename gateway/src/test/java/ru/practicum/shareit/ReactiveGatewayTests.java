@@ -0,0 +1,97 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class ReactiveGatewayTests {
+    private static final StubShareItServer server = new StubShareItServer(Duration.ZERO);
+
+    @Autowired
+    private WebTestClient client;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) {
+        registry.add("shareit-server.url", server::url);
+    }
+
+    @AfterAll
+    static void stop() {
+        server.close();
+    }
+
+    @Test
+    void forwardsQueryHeadersAndResponseTest() {
+        client.get().uri("/bookings?state=PAST&size=5")
+                .header("X-Sharer-User-Id", "7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals("X-Next-Cursor", "next")
+                .expectBody()
+                .jsonPath("$.method").isEqualTo("GET")
+                .jsonPath("$.uri").isEqualTo("/bookings?state=PAST&size=5")
+                .jsonPath("$.userId").isEqualTo("7");
+    }
+
+    @Test
+    void forwardsValidatedBodyTest() {
+        client.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"User\",\"email\":\"user@mail.com\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.method").isEqualTo("POST")
+                .jsonPath("$.body").value(containsString("user@mail.com"));
+    }
+
+    @Test
+    void keepsServerErrorStatusTest() {
+        client.get().uri("/items/404")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Не найдено");
+    }
+
+    @Test
+    void rejectsInvalidRequestsBeforeForwardingTest() {
+        client.get().uri("/bookings?state=UNKNOWN")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Unknown state: UNKNOWN");
+        client.get().uri("/items?size=0")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"User\",\"email\":\"mail.com\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.patch().uri("/bookings")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"bookingId\":1,\"approved\":true},null]")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
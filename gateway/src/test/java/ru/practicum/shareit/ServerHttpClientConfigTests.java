@@ -0,0 +1,44 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.support.HttpAccessor;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.user.client.UserClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@SpringBootTest(properties = {"shareit-server.http.max-total=40", "shareit-server.http.max-per-route=20"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ServerHttpClientConfigTests {
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final MeterRegistry meterRegistry;
+    private final UserClient userClient;
+    private final BookingClient bookingClient;
+
+    @Test
+    void clientsSharePooledRequestFactoryTest() {
+        assertEquals(40, connectionManager.getMaxTotal());
+        assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+        Object requestFactory = ReflectionTestUtils.getField(userClient.rest, HttpAccessor.class, "requestFactory");
+
+        assertThat(requestFactory).isInstanceOf(HttpComponentsClientHttpRequestFactory.class);
+        assertSame(requestFactory, ReflectionTestUtils.getField(bookingClient.rest, HttpAccessor.class, "requestFactory"));
+    }
+
+    @Test
+    void poolMetricsTest() {
+        assertEquals(20, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+                .tag("httpclient", "shareit-server").gauge().value());
+        assertEquals(40, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "shareit-server").gauge().value());
+    }
+}
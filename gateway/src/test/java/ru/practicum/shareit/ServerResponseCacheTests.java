@@ -0,0 +1,99 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ServerResponseCacheTests {
+    private ServerResponseCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void init() {
+        cache = new ServerResponseCache(new ServerResponseCacheProperties());
+        loads = new AtomicInteger();
+    }
+
+    private Supplier<ResponseEntity<Resource>> server(String body) {
+        return () -> {
+            loads.incrementAndGet();
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new ByteArrayResource(body.getBytes()));
+        };
+    }
+
+    @Test
+    void requestIsCachedPerUserTest() {
+        ResponseKey key = new ResponseKey(7L, null, 1L);
+        ResponseKey otherUser = new ResponseKey(7L, null, 2L);
+        cache.get(ServerResponseCache.REQUESTS, key, server("{\"id\":7}"));
+        cache.get(ServerResponseCache.REQUESTS, key, server("{\"id\":7}"));
+        cache.get(ServerResponseCache.REQUESTS, otherUser, server("{\"id\":7}"));
+        cache.invalidate(List.of("request:8"));
+        cache.get(ServerResponseCache.REQUESTS, key, server("{\"id\":7}"));
+        assertEquals(2, loads.get());
+
+        cache.invalidate(List.of("item:3,request:7"));
+        cache.get(ServerResponseCache.REQUESTS, key, server("{\"id\":7}"));
+        cache.get(ServerResponseCache.REQUESTS, otherUser, server("{\"id\":7}"));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void itemChangeInvalidatesItemAndSearchTest() {
+        ResponseKey item = new ResponseKey(3L, null, 1L);
+        ResponseKey otherItem = new ResponseKey(4L, null, 1L);
+        ResponseKey search = new ResponseKey(null, "дрель&from=0&size=10", 1L);
+        cache.get(ServerResponseCache.ITEMS, item, server("{\"id\":3}"));
+        cache.get(ServerResponseCache.ITEMS, otherItem, server("{\"id\":4}"));
+        cache.get(ServerResponseCache.SEARCH, search, server("[]"));
+
+        cache.invalidate(List.of("item:3"));
+        cache.get(ServerResponseCache.ITEMS, item, server("{\"id\":3}"));
+        cache.get(ServerResponseCache.ITEMS, otherItem, server("{\"id\":4}"));
+        cache.get(ServerResponseCache.SEARCH, search, server("[]"));
+        assertEquals(5, loads.get());
+
+        cache.invalidate(List.of("user:1"));
+        cache.get(ServerResponseCache.ITEMS, otherItem, server("{\"id\":4}"));
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void responseReadBeforeInvalidationIsNotStoredTest() {
+        ResponseKey key = new ResponseKey(3L, null, 1L);
+        cache.get(ServerResponseCache.ITEMS, key, () -> {
+            ResponseEntity<Resource> stale = server("{\"id\":3}").get();
+            cache.invalidate(List.of("item:3"));
+            return stale;
+        });
+        cache.get(ServerResponseCache.ITEMS, key, server("{\"id\":3}"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void hitRateMetricsTest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        ResponseKey key = new ResponseKey(3L, null, 1L);
+        for (int i = 0; i < 4; i++) {
+            cache.get(ServerResponseCache.ITEMS, key, server("{\"id\":3}"));
+        }
+
+        assertEquals(3, registry.get("cache.gets").tag("cache", ServerResponseCache.ITEMS).tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", ServerResponseCache.ITEMS).tag("result", "miss")
+                .functionCounter().count());
+    }
+}
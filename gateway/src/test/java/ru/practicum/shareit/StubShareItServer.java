@@ -0,0 +1,65 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+public class StubShareItServer implements AutoCloseable {
+    private final ObjectMapper mapper = new ObjectMapper();
+    // собственные event loop: глобальные ресурсы reactor-netty освобождаются при закрытии контекста шлюза
+    private final LoopResources loops = LoopResources.create("stub-shareit-server");
+    private final DisposableServer server;
+
+    public StubShareItServer(Duration delay) {
+        server = HttpServer.create()
+                .runOn(loops)
+                .port(0)
+                .handle((request, response) -> request.receive().aggregate()
+                        .asString(StandardCharsets.UTF_8)
+                        .defaultIfEmpty("")
+                        .delayElement(delay)
+                        .flatMap(body -> {
+                            if (request.uri().endsWith("/404")) {
+                                return response.status(HttpResponseStatus.NOT_FOUND)
+                                        .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                        .sendString(Mono.just("{\"error\":\"Не найдено\"}"), StandardCharsets.UTF_8)
+                                        .then();
+                            }
+                            return response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                    .header("X-Next-Cursor", "next")
+                                    .sendString(Mono.just(echo(request.method().name(), request.uri(),
+                                            request.requestHeaders().get("X-Sharer-User-Id"), body)),
+                                            StandardCharsets.UTF_8)
+                                    .then();
+                        }))
+                .bindNow();
+    }
+
+    private String echo(String method, String uri, String userId, String body) {
+        try {
+            return mapper.writeValueAsString(Map.of("method", method, "uri", uri,
+                    "userId", userId == null ? "" : userId, "body", body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public String url() {
+        return "http://localhost:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+        loops.disposeLater().block();
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.coyote.ProtocolHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("virtual-threads")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class VirtualThreadsConfigTests {
+    private final TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer;
+
+    @Test
+    void virtualThreadsProfileTest() {
+        ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+        virtualThreadsProtocolHandlerCustomizer.customize(protocolHandler);
+
+        verify(protocolHandler, times(Runtime.version().feature() >= 21 ? 1 : 0)).setExecutor(any());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import ru.practicum.shareit.ShareItGateway;
+import ru.practicum.shareit.StubShareItServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// запускается только с профилем benchmark: mvn test -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+public class GatewayLoadBenchmarkTests {
+    // параметры можно увеличить для ручного прогона: -Dshareit.load.requests=2000 -Dshareit.load.delay=500
+    private static final int REQUESTS = Integer.getInteger("shareit.load.requests", 80);
+    private static final Duration SERVER_DELAY = Duration.ofMillis(Integer.getInteger("shareit.load.delay", 250));
+    private static final int SERVLET_THREADS = Integer.getInteger("shareit.load.servlet-threads", 8);
+    private static final int CONNECTIONS = Integer.getInteger("shareit.load.connections", 5000);
+
+    static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private long run(String serverUrl, int requests, int threads, String... args) {
+        List<String> gatewayArgs = new ArrayList<>(List.of("--server.port=0",
+                "--shareit-server.url=" + serverUrl,
+                "--server.tomcat.threads.max=" + threads,
+                "--logging.level.root=INFO",
+                "--logging.level.org.springframework.web.client.RestTemplate=INFO"));
+        gatewayArgs.addAll(List.of(args));
+        ConnectionProvider connections = ConnectionProvider.builder("load")
+                .maxConnections(requests)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItGateway.class)
+                .run(gatewayArgs.toArray(String[]::new))) {
+            String gatewayUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            WebClient client = WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .baseUrl(gatewayUrl)
+                    .build();
+            long started = System.nanoTime();
+            // id с 1000, чтобы не попасть на /404 заглушки
+            Long succeeded = Flux.range(1000, requests)
+                    .flatMap(i -> client.get().uri("/users/{id}", i).retrieve().toBodilessEntity(), requests)
+                    .filter(response -> response.getStatusCode().is2xxSuccessful())
+                    .count()
+                    .block();
+            long millis = (System.nanoTime() - started) / 1_000_000;
+            assertEquals(requests, succeeded);
+            return millis;
+        } finally {
+            connections.dispose();
+        }
+    }
+
+    @Test
+    void servletAndReactiveModesTest() {
+        try (StubShareItServer server = new StubShareItServer(SERVER_DELAY)) {
+            long servlet = run(server.url(), REQUESTS, SERVLET_THREADS);
+            long reactive = run(server.url(), REQUESTS, SERVLET_THREADS, "--spring.profiles.active=reactive");
+
+            log.info("{} одновременных запросов, задержка сервера {} мс: servlet ({} потоков) {} мс, reactive {} мс",
+                    REQUESTS, SERVER_DELAY.toMillis(), SERVLET_THREADS, servlet, reactive);
+        }
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsSupported")
+    void platformAndVirtualThreadsTest() {
+        // пул Tomcat по умолчанию (200 потоков) с теми же пулами соединений, что и в профиле virtual-threads
+        String[] platformThreads = {"--server.tomcat.max-connections=10000", "--server.tomcat.accept-count=1000",
+                "--shareit-server.http.max-total=1000", "--shareit-server.http.max-per-route=1000",
+                "--shareit-server.http.connection-request-timeout=5s"};
+        try (StubShareItServer server = new StubShareItServer(SERVER_DELAY)) {
+            // прогрев JIT, иначе первый замер заметно медленнее второго независимо от режима
+            run(server.url(), CONNECTIONS, 200, platformThreads);
+            long virtual = run(server.url(), CONNECTIONS, 200, "--spring.profiles.active=virtual-threads");
+            long platform = run(server.url(), CONNECTIONS, 200, platformThreads);
+
+            log.info("{} одновременных соединений, задержка сервера {} мс: пул Tomcat {} мс ({} запр/с), "
+                            + "виртуальные потоки {} мс ({} запр/с)", CONNECTIONS, SERVER_DELAY.toMillis(),
+                    platform, CONNECTIONS * 1000L / platform, virtual, CONNECTIONS * 1000L / virtual);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureMockRestServiceServer;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.user.client.UserClient;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// запускается только с профилем benchmark: mvn test -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMockRestServiceServer
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class PassThroughBenchmarkTests {
+    private static final int USERS = 5_000;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+
+    private final MockMvc mvc;
+    private final UserClient userClient;
+    private final MockServerRestTemplateCustomizer servers;
+
+    private String users;
+
+    @BeforeEach
+    void init() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= USERS; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"name\":\"User").append(i)
+                    .append("\",\"email\":\"user").append(i).append("@mail.com\"}");
+        }
+        users = json.append(']').toString();
+        servers.getServer((RestTemplate) ReflectionTestUtils.getField(userClient, "rest"))
+                .expect(ExpectedCount.manyTimes(), requestTo("http://localhost:9090/users"))
+                .andRespond(withSuccess(users, MediaType.APPLICATION_JSON));
+    }
+
+    @AfterEach
+    void clean() {
+        userClient.setPassThrough(true);
+    }
+
+    private String findAll() throws Exception {
+        return mvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    private void measure(boolean passThrough) throws Exception {
+        userClient.setPassThrough(passThrough);
+        for (int i = 0; i < WARMUP; i++) {
+            assertEquals(users, findAll());
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = threads.getThreadAllocatedBytes(threadId);
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            findAll();
+        }
+        long nanos = (System.nanoTime() - started) / ROUNDS;
+        allocated = (threads.getThreadAllocatedBytes(threadId) - allocated) / ROUNDS;
+        log.info("{}: {} мкс и {} КБ на запрос", passThrough ? "pass-through" : "buffered", nanos / 1_000,
+                allocated / 1_024);
+    }
+
+    @Test
+    void passThroughAndBufferedAllocationTest() throws Exception {
+        measure(false);
+        measure(true);
+    }
+}
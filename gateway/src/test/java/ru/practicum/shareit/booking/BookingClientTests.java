@@ -0,0 +1,53 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.StreamUtils;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(BookingClient.class)
+public class BookingClientTests {
+
+    @Autowired
+    private BookingClient bookingClient;
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    @Test
+    void changeStatusesSendsDecisionsInOneRequestTest() throws Exception {
+        String results = "[{\"bookingId\":1,\"status\":\"APPROVED\",\"error\":null}," +
+                "{\"bookingId\":2,\"status\":null,\"error\":\"Бронирования с данным id не существует\"}]";
+        server.expect(requestTo("http://localhost:9090/bookings"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andExpect(content().json("[{\"bookingId\":1,\"approved\":true},{\"bookingId\":2,\"approved\":false}]"))
+                .andRespond(withSuccess(results, MediaType.APPLICATION_JSON));
+
+        ResponseEntity<Object> response = bookingClient.changeStatuses(List.of(new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, false)), 1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, StreamUtils.copyToString(((Resource) response.getBody()).getInputStream(),
+                StandardCharsets.UTF_8));
+        server.verify();
+    }
+}
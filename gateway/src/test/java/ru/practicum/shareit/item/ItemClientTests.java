@@ -0,0 +1,145 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.ServerResponseCache;
+import ru.practicum.shareit.ServerResponseCacheProperties;
+import ru.practicum.shareit.item.client.ItemClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(ItemClient.class)
+@Import(ServerResponseCache.class)
+@EnableConfigurationProperties(ServerResponseCacheProperties.class)
+public class ItemClientTests {
+    private static final String ITEM = "{\"id\":1,\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}";
+
+    @Autowired
+    private ItemClient itemClient;
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    private static String body(ResponseEntity<Object> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static void ifNoneMatch(String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void findDtoByIdIsCachedPerUserTest() {
+        server.expect(ExpectedCount.once(), requestTo("http://localhost:9090/items/1"))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(ITEM, MediaType.APPLICATION_JSON));
+        server.expect(ExpectedCount.once(), requestTo("http://localhost:9090/items/1"))
+                .andExpect(header("X-Sharer-User-Id", "2"))
+                .andRespond(withSuccess(ITEM, MediaType.APPLICATION_JSON));
+
+        assertEquals(ITEM, body(itemClient.findDtoById(1L, 1L)));
+        assertEquals(ITEM, body(itemClient.findDtoById(1L, 1L)));
+        assertEquals(ITEM, body(itemClient.findDtoById(1L, 2L)));
+        assertEquals(ITEM, body(itemClient.findDtoById(1L, 2L)));
+        server.verify();
+    }
+
+    @Test
+    void writeInvalidatesCachedItemTest() {
+        HttpHeaders invalidate = new HttpHeaders();
+        invalidate.add(ServerResponseCache.INVALIDATE_HEADER, "item:2");
+        server.expect(requestTo("http://localhost:9090/items/2"))
+                .andRespond(withSuccess(ITEM, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://localhost:9090/items/2"))
+                .andExpect(method(HttpMethod.PATCH))
+                .andRespond(withSuccess(ITEM, MediaType.APPLICATION_JSON).headers(invalidate));
+        server.expect(requestTo("http://localhost:9090/items/2"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(ITEM, MediaType.APPLICATION_JSON));
+
+        itemClient.findDtoById(2L, 1L);
+        ItemDto itemDto = new ItemDto(2L, "Дрель", "Аккумуляторная дрель", true, null);
+        ResponseEntity<Object> updated = itemClient.updateItem(2L, itemDto, 1L);
+        itemClient.findDtoById(2L, 1L);
+
+        assertNull(updated.getHeaders().get(ServerResponseCache.INVALIDATE_HEADER));
+        server.verify();
+    }
+
+    @Test
+    void errorsAreNotCachedTest() {
+        String search = "http://localhost:9090/items/search?text=%D0%B4%D1%80%D0%B5%D0%BB%D1%8C&from=0&size=10";
+        server.expect(ExpectedCount.twice(), requestTo(search))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"error\":\"Пользователь не найден\"}"));
+
+        assertEquals(HttpStatus.NOT_FOUND, itemClient.findAllByText(0, 10, "дрель", 1L).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, itemClient.findAllByText(0, 10, "дрель", 1L).getStatusCode());
+        server.verify();
+    }
+
+    @Test
+    void cachedItemAnswersNotModifiedTest() {
+        HttpHeaders etag = new HttpHeaders();
+        etag.setETag("\"v1\"");
+        server.expect(ExpectedCount.once(), requestTo("http://localhost:9090/items/3"))
+                .andExpect(headerDoesNotExist(HttpHeaders.IF_NONE_MATCH))
+                .andRespond(withSuccess(ITEM, MediaType.APPLICATION_JSON).headers(etag));
+
+        ifNoneMatch("\"v0\"");
+        assertEquals(ITEM, body(itemClient.findDtoById(3L, 1L)));
+        ifNoneMatch("\"v1\"");
+        ResponseEntity<Object> notModified = itemClient.findDtoById(3L, 1L);
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals("\"v1\"", notModified.getHeaders().getETag());
+        assertNull(notModified.getBody());
+        server.verify();
+    }
+
+    @Test
+    void conditionalHeadersAreForwardedTest() {
+        HttpHeaders etag = new HttpHeaders();
+        etag.setETag("\"v1\"");
+        server.expect(requestTo("http://localhost:9090/items?from=0&size=10"))
+                .andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED).headers(etag));
+
+        ifNoneMatch("\"v1\"");
+        ResponseEntity<Object> response = itemClient.findAllByUser(0, 10, null, 1L);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"v1\"", response.getHeaders().getETag());
+        server.verify();
+    }
+}
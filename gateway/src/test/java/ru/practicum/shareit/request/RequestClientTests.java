@@ -0,0 +1,65 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.util.StreamUtils;
+import ru.practicum.shareit.request.client.RequestClient;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(RequestClient.class)
+public class RequestClientTests {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private RequestClient requestClient;
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    @Test
+    void streamCopiesServerBody() throws Exception {
+        String body = "{\"id\":1,\"description\":\"Нужна дрель\",\"items\":[]}\n";
+        server.expect(requestTo("http://localhost:9090/requests/stream"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess(body, NDJSON));
+
+        ResponseEntity<Resource> response = requestClient.streamAllByOwnerWithResponses(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(NDJSON, response.getHeaders().getContentType());
+        assertThat(response.getBody()).isInstanceOf(InputStreamResource.class);
+        assertEquals(body, StreamUtils.copyToString(response.getBody().getInputStream(), StandardCharsets.UTF_8));
+        server.verify();
+    }
+
+    @Test
+    void streamKeepsServerErrorStatus() throws Exception {
+        String body = "{\"error\":\"Произошла ошибка\"}";
+        server.expect(requestTo("http://localhost:9090/requests/stream"))
+                .andRespond(withStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body));
+
+        ResponseEntity<Resource> response = requestClient.streamAllByOwnerWithResponses(1L);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(body, StreamUtils.copyToString(response.getBody().getInputStream(), StandardCharsets.UTF_8));
+    }
+}
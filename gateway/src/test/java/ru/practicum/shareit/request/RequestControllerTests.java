@@ -15,8 +15,11 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,4 +59,44 @@ public class RequestControllerTests {
 
         verify(requestClient, never()).create(itemRequestDto, userId);
     }
+
+    @Test
+    void findAllWrongPageTest() throws Exception {
+        mvc.perform(get("/requests/all")
+                        .param("from", "-1")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/requests/all")
+                        .param("size", "0")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isBadRequest());
+
+        verify(requestClient, never()).findAll(anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+    void findAllByOwnerWithoutSizeTest() throws Exception {
+        mvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+
+        verify(requestClient).findAllByOwnerWithResponses(0, null, userId);
+    }
+
+    @Test
+    void blankPageParamsKeepDefaultsTest() throws Exception {
+        mvc.perform(get("/requests/all")
+                        .param("from", "")
+                        .param("size", "")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+        mvc.perform(get("/requests")
+                        .param("from", "")
+                        .param("size", "")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk());
+
+        verify(requestClient).findAll(0, 10, userId);
+        verify(requestClient).findAllByOwnerWithResponses(0, null, userId);
+    }
 }
@@ -0,0 +1,49 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Совет транзакций имеет самый низкий приоритет, поэтому повтор оборачивает транзакцию целиком:
+// конфликт версий проявляется при коммите, и каждая попытка заново читает актуальные данные
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class ConflictRetryAspect {
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public ConflictRetryAspect(@Value("${shareit.conflict-retry.max-attempts:10}") int maxAttempts,
+                               @Value("${shareit.conflict-retry.backoff:10ms}") Duration backoff) {
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+    }
+
+    @Around("@annotation(ru.practicum.shareit.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Конфликт версий в {} не разрешился за {} попыток", joinPoint.getSignature(), attempt);
+                    throw e;
+                }
+                log.debug("Конфликт версий в {}, попытка {}", joinPoint.getSignature(), attempt);
+                // каждая неудачная попытка означает чужой успешный коммит, поэтому N конкурентов укладываются
+                // в N попыток; случайная пауза лишь разводит их, чтобы не тратить попытки впустую
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoff.toMillis() * attempt + 1));
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.service.BookingAvailability;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import javax.persistence.EntityManagerFactory;
+
+// Hibernate сам обновляет кэш второго уровня при изменении сущностей, но не знает о каскадных удалениях в базе
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEviction {
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookingAvailability bookingAvailability;
+
+    public void userDeleted(Long userId) {
+        // вместе с пользователем база удаляет его вещи и запросы, а с запросами - вещи, созданные в ответ на них
+        AfterCommit.run(() -> {
+            entityManagerFactory.getCache().evict(Item.class);
+            entityManagerFactory.getCache().evict(ItemRequest.class);
+            bookingAvailability.userDeleted();
+            log.debug("Из кэша сущностей удалены вещи и запросы после удаления пользователя {}", userId);
+        });
+    }
+
+    public void itemDeleted(Long itemId) {
+        // вместе с вещью база удаляет ее бронирования
+        AfterCommit.run(() -> bookingAvailability.itemDeleted(itemId));
+    }
+}
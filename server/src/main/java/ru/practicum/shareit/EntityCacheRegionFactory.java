@@ -0,0 +1,26 @@
+package ru.practicum.shareit;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Map;
+import java.util.UUID;
+
+// Провайдер JCache по умолчанию отдает один CacheManager на всю JVM, и фабрики сессий разных контекстов
+// (с разными базами) делили бы кэш сущностей. Здесь у каждой фабрики свой менеджер, закрываемый вместе с ней.
+public class EntityCacheRegionFactory extends JCacheRegionFactory {
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected CacheManager resolveCacheManager(SessionFactoryOptions settings, Map properties) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        XmlConfiguration configuration = new XmlConfiguration(getClass().getResource("/ehcache.xml"));
+        return provider.getCacheManager(URI.create("shareit:entities:" + UUID.randomUUID()), configuration);
+    }
+}
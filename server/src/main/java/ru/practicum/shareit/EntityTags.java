@@ -0,0 +1,19 @@
+package ru.practicum.shareit;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+
+// Сильный ETag ответа собирается из id и версий всех сущностей, попавших в представление,
+// поэтому его можно сравнить с If-None-Match до того, как ответ будет построен
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(Object... parts) {
+        return DigestUtils.md5DigestAsHex(StringUtils.arrayToDelimitedString(parts, ":")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+}
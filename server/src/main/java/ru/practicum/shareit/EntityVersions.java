@@ -0,0 +1,42 @@
+package ru.practicum.shareit;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+
+// Поднимает версию сущности, когда меняется не она сама, а данные, которые показываются вместе с ней
+@Component
+public class EntityVersions {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void increment(Object entity) {
+        entityManager.lock(entity, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    public void itemChanged(Item item) {
+        // вещи показываются в ответе на запрос, к которому они созданы
+        if (item.getRequest() != null) {
+            increment(item.getRequest());
+        }
+    }
+
+    public void userDeleted(Long userId) {
+        // база каскадно удалит вещи пользователя, в том числе созданные в ответ на чужие запросы
+        entityManager.createQuery("update ItemRequest r set r.version = r.version + 1 " +
+                        "where r.id in (select i.request.id from Item i where i.owner.id = ?1)")
+                .setParameter(1, userId)
+                .executeUpdate();
+    }
+
+    public void userRenamed(Long userId) {
+        // имя автора показывается в отзывах к вещам, а тег вещи собирается из ее версии
+        entityManager.createQuery("update Item i set i.version = i.version + 1 " +
+                        "where i.id in (select c.item.id from Comment c where c.author.id = ?1)")
+                .setParameter(1, userId)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Выгрузка идет страницами по возрастанию id, и каждая страница читается своей короткой транзакцией:
+// соединение с базой возвращается в пул, пока медленный клиент дочитывает уже отданные строки
+public final class ExportPages {
+    public static final int PAGE_SIZE = 500;
+
+    private ExportPages() {
+    }
+
+    public static <T> void forEach(BiFunction<Long, Pageable, List<T>> page, Function<T, Long> id,
+                                   Consumer<T> action) {
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE);
+        long lastId = 0;
+        List<T> rows;
+        do {
+            rows = page.apply(lastId, pageable);
+            rows.forEach(action);
+            if (!rows.isEmpty()) {
+                lastId = id.apply(rows.get(rows.size() - 1));
+            }
+        } while (rows.size() == PAGE_SIZE);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.servlet.http.HttpServletResponse;
+
+// Сообщает шлюзу, какие закэшированные ответы устарели: теги уходят заголовком ответа на запрос-изменение
+@Component
+public class ResponseCacheInvalidation {
+    public static final String HEADER = "X-Shareit-Invalidate";
+
+    public void itemChanged(Item item) {
+        send("item:" + item.getId());
+        // вещь показывается в ответах на запрос, к которому она создана
+        if (item.getRequest() != null) {
+            send("request:" + item.getRequest().getId());
+        }
+    }
+
+    public void userChanged(Long userId) {
+        send("user:" + userId);
+    }
+
+    private void send(String tag) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+            if (response != null) {
+                response.addHeader(HEADER, tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig implements WebMvcConfigurer {
+    private final Optional<ExecutorService> executor = newVirtualThreadPerTaskExecutor();
+
+    // Executors.newVirtualThreadPerTaskExecutor появился в Java 21, сборка пока на Java 17
+    static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null));
+        } catch (ReflectiveOperationException e) {
+            log.warn("Виртуальные потоки недоступны в Java {}, запросы обрабатываются пулом Tomcat",
+                    Runtime.version().feature());
+            return Optional.empty();
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> executor.ifPresent(protocolHandler::setExecutor);
+    }
+
+    // StreamingResponseBody выгрузок тоже держит соединение с базой на все время ответа
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        executor.ifPresent(virtualThreads -> configurer.setTaskExecutor(new TaskExecutorAdapter(virtualThreads)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.ifPresent(ExecutorService::shutdown);
+    }
+}
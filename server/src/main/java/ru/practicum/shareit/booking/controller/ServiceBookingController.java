@@ -1,8 +1,16 @@
 package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.NdjsonWriter;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
@@ -17,7 +25,9 @@ import java.util.List;
 public class ServiceBookingController {
 
     private final BookingService bookingService;
+    private final NdjsonWriter ndjsonWriter;
     private final String userIdHeader = "X-Sharer-User-Id";
+    private final String nextCursorHeader = "X-Next-Cursor";
 
     @PostMapping
     public Booking create(@RequestBody CreateBookingDto bookingDto,
@@ -32,24 +42,55 @@ public class ServiceBookingController {
         return bookingService.changeStatus(bookingId, userId, approved);
     }
 
+    @PatchMapping
+    public List<BookingDecisionResultDto> approveAll(@RequestBody List<BookingDecisionDto> decisions,
+                                                     @RequestHeader(value = userIdHeader) Long userId) {
+        return bookingService.changeStatuses(decisions, userId);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(NdjsonWriter.NDJSON)
+                .body(ndjsonWriter.write(bookingService::exportAll));
+    }
+
     @GetMapping("/{bookingId}")
-    public Booking find(@PathVariable Long bookingId, @RequestHeader(value = userIdHeader) Long userId) {
-        return bookingService.findById(bookingId, userId);
+    public Booking find(@PathVariable Long bookingId, @RequestHeader(value = userIdHeader) Long userId,
+                        WebRequest request) {
+        return bookingService.findById(bookingId, userId, request::checkNotModified);
     }
 
     @GetMapping
-    public List<Booking> findAllByUser(@RequestParam(defaultValue = "0") Integer from,
-                                       @RequestParam(defaultValue = "10") Integer size,
-                                       @RequestParam(required = false, defaultValue = "ALL") String state,
-                                       @RequestHeader(value = userIdHeader) Long userId) {
-        return bookingService.findAllByUser(from, size, userId, State.validateState(state));
+    public ResponseEntity<List<Booking>> findAllByUser(@RequestParam(defaultValue = "0") Integer from,
+                                                       @RequestParam(defaultValue = "10") Integer size,
+                                                       @RequestParam(required = false, defaultValue = "ALL") String state,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestHeader(value = userIdHeader) Long userId) {
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.findAllByUser(from, size, userId, State.validateState(state)));
+        }
+        return toResponse(bookingService.findAllByUserAfter(cursor, size, userId, State.validateState(state)));
     }
 
     @GetMapping("/owner")
-    public List<Booking> findAllUserItems(@RequestParam(defaultValue = "0") Integer from,
-                                          @RequestParam(defaultValue = "10") Integer size,
-                                          @RequestParam(required = false, defaultValue = "ALL") String state,
-                                          @RequestHeader(value = userIdHeader) Long userId) {
-        return bookingService.findAllByOwner(from, size, userId, State.validateState(state));
+    public ResponseEntity<List<Booking>> findAllUserItems(@RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "10") Integer size,
+                                                          @RequestParam(required = false, defaultValue = "ALL") String state,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestHeader(value = userIdHeader) Long userId) {
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.findAllByOwner(from, size, userId, State.validateState(state)));
+        }
+        return toResponse(bookingService.findAllByOwnerAfter(cursor, size, userId, State.validateState(state)));
+    }
+
+    private ResponseEntity<List<Booking>> toResponse(Slice<Booking> bookings) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.hasNext()) {
+            List<Booking> content = bookings.getContent();
+            response.header(nextCursorHeader, BookingCursor.after(content.get(content.size() - 1)).encode());
+        }
+        return response.body(bookings.getContent());
     }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookingExportDto {
+    private final Long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final Long itemId;
+    private final Long bookerId;
+    private final StatusOfBooking status;
+}
@@ -1,22 +1,17 @@
 package ru.practicum.shareit.booking.dto;
 
-import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.exceptions.NotFoundAnythingException;
-import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.model.Item;
 
 @Component
-@AllArgsConstructor
 public class BookingMapper {
-    private final ItemRepository itemRepository;
 
-    public Booking toBookingCreation(CreateBookingDto bookingCreationDto) {
+    public Booking toBookingCreation(CreateBookingDto bookingCreationDto, Item item) {
         return new Booking(
                 bookingCreationDto.getStart(),
                 bookingCreationDto.getEnd(),
-                itemRepository.findById(bookingCreationDto.getItemId()).orElseThrow(() ->
-                        new NotFoundAnythingException("Такой вещи не существует"))
+                item
         );
     }
 
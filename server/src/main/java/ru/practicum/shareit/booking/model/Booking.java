@@ -1,6 +1,6 @@
 package ru.practicum.shareit.booking.model;
 
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
@@ -12,9 +12,15 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.details",
+        attributeNodes = {@NamedAttributeNode(value = "item", subgraph = "item"), @NamedAttributeNode("booker")},
+        subgraphs = {
+                @NamedSubgraph(name = "item",
+                        attributeNodes = {@NamedAttributeNode("owner"), @NamedAttributeNode(value = "request", subgraph = "request")}),
+                @NamedSubgraph(name = "request", attributeNodes = @NamedAttributeNode("requestor"))
+        })
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @EqualsAndHashCode
 public class Booking {
 
@@ -29,11 +35,11 @@ public class Booking {
     @Column(name = "end_date")
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
 
@@ -41,9 +47,38 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     private StatusOfBooking status;
 
+    // Копия items.owner_id, чтобы выборки бронирований владельца обходились без соединения с items.
+    // Пишется только при вставке, дальше ее ведут заполнение и ON UPDATE CASCADE в базе
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Column(name = "item_owner_id", updatable = false)
+    private Long ownerId;
+
+    @Version
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @Column(nullable = false)
+    private long version;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, StatusOfBooking status) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.item = item;
+        this.booker = booker;
+        this.status = status;
+    }
+
     public Booking(LocalDateTime start, LocalDateTime end, Item item) {
         this.start = start;
         this.end = end;
         this.item = item;
     }
+
+    @PrePersist
+    void fillOwnerId() {
+        if (item != null && item.getOwner() != null) {
+            ownerId = item.getOwner().getId();
+        }
+    }
 }
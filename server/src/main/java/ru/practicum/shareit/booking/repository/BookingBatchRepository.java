@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class BookingBatchRepository {
+
+    // Версия проверяется и поднимается в самом UPDATE, как это сделал бы Hibernate для сущности
+    private static final String UPDATE_STATUS = "UPDATE bookings SET status = ?, version = version + 1 " +
+            "WHERE id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Возвращает id бронирований, нарушивших ограничение базы: их статус не меняется, остальные сохраняются.
+    // Вызывается внутри транзакции, точки сохранения ставятся на ее соединении.
+    public Set<Long> updateStatus(List<Booking> bookings, StatusOfBooking status) {
+        if (bookings.isEmpty()) {
+            return Set.of();
+        }
+        try {
+            inSavepoint(bookings, status);
+            return Set.of();
+        } catch (DataIntegrityViolationException e) {
+            // пакет откачен целиком, нарушившие ограничение строки ищутся по одной
+            Set<Long> violating = new HashSet<>();
+            for (Booking booking : bookings) {
+                try {
+                    inSavepoint(List.of(booking), status);
+                } catch (DataIntegrityViolationException rowException) {
+                    violating.add(booking.getId());
+                }
+            }
+            return violating;
+        }
+    }
+
+    private void inSavepoint(List<Booking> bookings, StatusOfBooking status) {
+        Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        try {
+            batchUpdate(bookings, status);
+        } catch (DataIntegrityViolationException e) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            throw e;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+    }
+
+    private void batchUpdate(List<Booking> bookings, StatusOfBooking status) {
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_STATUS, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, status.name());
+                ps.setLong(2, bookings.get(i).getId());
+                ps.setLong(3, bookings.get(i).getVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bookings.size();
+            }
+        });
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new ObjectOptimisticLockingFailureException(Booking.class, bookings.get(i).getId());
+            }
+        }
+    }
+}
@@ -1,43 +1,138 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.StatusOfBooking;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findAllByItemId(Long itemId);
+    @Override
+    @EntityGraph("Booking.details")
+    Optional<Booking> findById(Long id);
 
-    Page<Booking> findAllByBookerIdOrderByEndDesc(Long userId, Pageable pageable);
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, b.booker.id, b.item.id) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2")
+    List<BookingDto> findAllIntervalsByItemIdAndStatus(Long itemId, StatusOfBooking status);
 
-    Page<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByEndDesc(Long userId, LocalDateTime now,
-                                                                           LocalDateTime now2, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndEndBeforeOrderByEndDesc(Long userId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStartAfterOrderByEndDesc(Long userId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByBookerIdAndStatusOrderByEndDesc(Long userId, StatusOfBooking status, Pageable pageable);
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, b.booker.id, b.item.id) " +
+            "from Booking b " +
+            "where b.item.id in ?1 and b.status = ?2")
+    List<BookingDto> findAllIntervalsByItemIdInAndStatus(Collection<Long> itemIds, StatusOfBooking status);
 
-    Page<Booking> findAllByItemOwnerIdOrderByEndDesc(Long userId, Pageable pageable);
+    @Query("select b from Booking b join fetch b.item where b.id in ?1")
+    List<Booking> findAllWithItemByIdIn(Collection<Long> ids);
 
-    Page<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByEndDesc(Long userId, LocalDateTime now,
-                                                                              LocalDateTime now2, Pageable pageable);
+    @Query("select count(b) > 0 from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2 and b.start < ?4 and b.end > ?3")
+    boolean existsOverlapping(Long itemId, StatusOfBooking status, LocalDateTime start, LocalDateTime end);
 
-    Page<Booking> findAllByItemOwnerIdAndEndBeforeOrderByEndDesc(Long userId, LocalDateTime now, Pageable pageable);
+    @EntityGraph("Booking.details")
+    Slice<Booking> findAllByBookerIdOrderByEndDesc(Long userId, Pageable pageable);
 
-    Page<Booking> findAllByItemOwnerIdAndStartAfterOrderByEndDesc(Long userId, LocalDateTime now, Pageable pageable);
-
-    Page<Booking> findAllByItemOwnerIdAndStatusOrderByEndDesc(Long userId, StatusOfBooking status, Pageable pageable);
-
-    List<Booking> findAllByItemIdAndEndBeforeOrderByEndDesc(Long itemId, LocalDateTime now);
-
-    List<Booking> findAllByItemIdAndStartAfterAndStatus(Long id, LocalDateTime now, StatusOfBooking status);
+    @EntityGraph("Booking.details")
+    Slice<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByEndDesc(Long userId, LocalDateTime now,
+                                                                           LocalDateTime now2, Pageable pageable);
 
-    List<Booking> findAllByItemIdAndStartBeforeAndStatus(Long id, LocalDateTime now, StatusOfBooking status);
+    @EntityGraph("Booking.details")
+    Slice<Booking> findAllByBookerIdAndEndBeforeOrderByEndDesc(Long userId, LocalDateTime now, Pageable pageable);
+
+    @EntityGraph("Booking.details")
+    Slice<Booking> findAllByBookerIdAndStartAfterOrderByEndDesc(Long userId, LocalDateTime now, Pageable pageable);
+
+    @EntityGraph("Booking.details")
+    Slice<Booking> findAllByBookerIdAndStatusOrderByEndDesc(Long userId, StatusOfBooking status, Pageable pageable);
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+            "where b.booker.id = :userId and b.status in :statuses " +
+            "and b.start > :startAfter and b.start < :startBefore and b.end > :endAfter and b.end < :endBefore " +
+            "and (b.end < :cursorEnd or (b.end = :cursorEnd and b.id < :cursorId)) " +
+            "order by b.end desc, b.id desc")
+    Slice<Booking> findBookerPage(@Param("userId") Long userId,
+                                  @Param("statuses") Collection<StatusOfBooking> statuses,
+                                  @Param("startAfter") LocalDateTime startAfter,
+                                  @Param("startBefore") LocalDateTime startBefore,
+                                  @Param("endAfter") LocalDateTime endAfter,
+                                  @Param("endBefore") LocalDateTime endBefore,
+                                  @Param("cursorEnd") LocalDateTime cursorEnd,
+                                  @Param("cursorId") Long cursorId,
+                                  Pageable pageable);
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+            "where b.item.owner.id = :userId and b.status in :statuses " +
+            "and b.start > :startAfter and b.start < :startBefore and b.end > :endAfter and b.end < :endBefore " +
+            "and (b.end < :cursorEnd or (b.end = :cursorEnd and b.id < :cursorId)) " +
+            "order by b.end desc, b.id desc")
+    Slice<Booking> findOwnerPage(@Param("userId") Long userId,
+                                 @Param("statuses") Collection<StatusOfBooking> statuses,
+                                 @Param("startAfter") LocalDateTime startAfter,
+                                 @Param("startBefore") LocalDateTime startBefore,
+                                 @Param("endAfter") LocalDateTime endAfter,
+                                 @Param("endBefore") LocalDateTime endBefore,
+                                 @Param("cursorEnd") LocalDateTime cursorEnd,
+                                 @Param("cursorId") Long cursorId,
+                                 Pageable pageable);
+
+    @EntityGraph("Booking.details")
+    @Query("select b from Booking b " +
+            "where b.ownerId = :userId and b.status in :statuses " +
+            "and b.start > :startAfter and b.start < :startBefore and b.end > :endAfter and b.end < :endBefore " +
+            "and (b.end < :cursorEnd or (b.end = :cursorEnd and b.id < :cursorId)) " +
+            "order by b.end desc, b.id desc")
+    Slice<Booking> findDenormalizedOwnerPage(@Param("userId") Long userId,
+                                             @Param("statuses") Collection<StatusOfBooking> statuses,
+                                             @Param("startAfter") LocalDateTime startAfter,
+                                             @Param("startBefore") LocalDateTime startBefore,
+                                             @Param("endAfter") LocalDateTime endAfter,
+                                             @Param("endBefore") LocalDateTime endBefore,
+                                             @Param("cursorEnd") LocalDateTime cursorEnd,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
+
+    boolean existsByItemIdAndBookerIdAndEndBefore(Long itemId, Long bookerId, LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, b.booker.id, b.item.id) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2 and b.start > ?3 " +
+            "order by b.start")
+    List<BookingDto> findNextBooking(Long itemId, StatusOfBooking status, LocalDateTime now, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, b.booker.id, b.item.id) " +
+            "from Booking b " +
+            "where b.item.id = ?1 and b.status = ?2 and b.start < ?3 " +
+            "order by b.end desc")
+    List<BookingDto> findLastBooking(Long itemId, StatusOfBooking status, LocalDateTime now, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, b.booker.id, b.item.id) " +
+            "from Booking b " +
+            "where b.item.id in ?1 and b.status = ?2 and b.start = " +
+            "(select min(n.start) from Booking n where n.item.id = b.item.id and n.status = ?2 and n.start > ?3)")
+    List<BookingDto> findNextBookings(Collection<Long> itemIds, StatusOfBooking status, LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDto(b.id, b.start, b.end, b.booker.id, b.item.id) " +
+            "from Booking b " +
+            "where b.item.id in ?1 and b.status = ?2 and b.start < ?3 and b.end = " +
+            "(select max(l.end) from Booking l where l.item.id = b.item.id and l.status = ?2 and l.start < ?3)")
+    List<BookingDto> findLastBookings(Collection<Long> itemIds, StatusOfBooking status, LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingExportDto(b.id, b.start, b.end, b.item.id, " +
+            "b.booker.id, b.status) " +
+            "from Booking b " +
+            "where b.id > ?1 " +
+            "order by b.id")
+    List<BookingExportDto> findExportPage(Long afterId, Pageable pageable);
 }
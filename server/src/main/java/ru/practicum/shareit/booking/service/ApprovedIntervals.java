@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class ApprovedIntervals {
+    // Объединение подтвержденных интервалов: непересекающиеся отрезки start -> end, отсортированные по началу
+    private final NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+
+    public synchronized void add(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> floor = intervals.floorEntry(start);
+        if (floor != null && !floor.getValue().isBefore(start)) {
+            start = floor.getKey();
+            end = max(end, floor.getValue());
+        }
+        Map.Entry<LocalDateTime, LocalDateTime> next = intervals.ceilingEntry(start);
+        while (next != null && !next.getKey().isAfter(end)) {
+            end = max(end, next.getValue());
+            intervals.remove(next.getKey());
+            next = intervals.higherEntry(start);
+        }
+        intervals.put(start, end);
+    }
+
+    public synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = intervals.lowerEntry(end);
+        return candidate != null && candidate.getValue().isAfter(start);
+    }
+
+    // отрезки не пересекаются и отсортированы по началу, поэтому закончившиеся лежат в начале
+    public synchronized void removeEndedBefore(LocalDateTime moment) {
+        Map.Entry<LocalDateTime, LocalDateTime> first = intervals.firstEntry();
+        while (first != null && !first.getValue().isAfter(moment)) {
+            intervals.pollFirstEntry();
+            first = intervals.firstEntry();
+        }
+    }
+
+    public synchronized int size() {
+        return intervals.size();
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
@@ -0,0 +1,131 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.AfterCommit;
+import ru.practicum.shareit.EntityVersions;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.AlreadyBookedException;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class BookingAvailability {
+    static final String PERIOD_ALREADY_BOOKED = "Вещь уже забронирована на выбранный период";
+
+    private final BookingRepository repository;
+    private final EntityVersions entityVersions;
+    private final boolean cacheEnabled;
+    private final boolean exclusionConstraint;
+    private final Map<Long, ApprovedIntervals> intervalsByItem = new ConcurrentHashMap<>();
+
+    public BookingAvailability(BookingRepository repository, EntityVersions entityVersions,
+                               @Value("${shareit.booking.availability-cache.enabled:true}") boolean cacheEnabled,
+                               @Value("${shareit.booking.exclusion-constraint.enabled:false}") boolean exclusionConstraint) {
+        this.repository = repository;
+        this.entityVersions = entityVersions;
+        this.cacheEnabled = cacheEnabled;
+        this.exclusionConstraint = exclusionConstraint;
+    }
+
+    public boolean overlaps(Long itemId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        // закончившиеся интервалы из кэша удаляются, поэтому бронирование в прошлом проверяется по базе
+        if (!cacheEnabled || start.isBefore(now)) {
+            return repository.existsOverlapping(itemId, StatusOfBooking.APPROVED, start, end);
+        }
+        // Загрузка под блокировкой корзины ConcurrentHashMap закрепляет виртуальный поток за несущим, но только
+        // при первом обращении к вещи; вынос загрузки наружу позволил бы approved() потерять подтверждение
+        ApprovedIntervals intervals = intervalsByItem.computeIfAbsent(itemId, this::load);
+        intervals.removeEndedBefore(now);
+        return intervals.overlaps(start, end);
+    }
+
+    // база каскадно удаляет бронирования вместе с вещью или пользователем, кэш об этом не знает
+    public void itemDeleted(Long itemId) {
+        intervalsByItem.remove(itemId);
+    }
+
+    public void userDeleted() {
+        // удаленный пользователь мог быть как владельцем вещей, так и арендатором любой вещи
+        intervalsByItem.clear();
+    }
+
+    public void checkBeforeApprove(Booking booking) {
+        if (exclusionConstraint) {
+            return;
+        }
+        // Без ограничения EXCLUDE в базе два подтверждения одной вещи не должны пройти проверку одновременно:
+        // обе транзакции поднимают версию вещи, и закоммитится только первая, вторая повторится и увидит пересечение
+        entityVersions.increment(booking.getItem());
+        if (repository.existsOverlapping(booking.getItem().getId(), StatusOfBooking.APPROVED,
+                booking.getStart(), booking.getEnd())) {
+            throw new AlreadyBookedException(PERIOD_ALREADY_BOOKED);
+        }
+    }
+
+    public Set<Long> findOverlapping(List<Booking> approvals) {
+        if (approvals.isEmpty()) {
+            return Set.of();
+        }
+        if (!exclusionConstraint) {
+            approvals.stream().map(Booking::getItem).distinct().forEach(entityVersions::increment);
+        }
+        // Пересечения ищутся и с уже подтвержденными бронированиями, и внутри самой пачки
+        Map<Long, ApprovedIntervals> intervals = new HashMap<>();
+        Set<Long> itemIds = approvals.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+        for (BookingDto booking : repository.findAllIntervalsByItemIdInAndStatus(itemIds, StatusOfBooking.APPROVED)) {
+            intervals.computeIfAbsent(booking.getItemId(), id -> new ApprovedIntervals())
+                    .add(booking.getStart(), booking.getEnd());
+        }
+        Set<Long> overlapping = new HashSet<>();
+        for (Booking booking : approvals) {
+            ApprovedIntervals itemIntervals = intervals.computeIfAbsent(booking.getItem().getId(),
+                    id -> new ApprovedIntervals());
+            if (itemIntervals.overlaps(booking.getStart(), booking.getEnd())) {
+                overlapping.add(booking.getId());
+            } else {
+                itemIntervals.add(booking.getStart(), booking.getEnd());
+            }
+        }
+        return overlapping;
+    }
+
+    public void approved(Booking booking) {
+        if (!cacheEnabled) {
+            return;
+        }
+        Long itemId = booking.getItem().getId();
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        AfterCommit.run(() -> add(itemId, start, end));
+    }
+
+    private void add(Long itemId, LocalDateTime start, LocalDateTime end) {
+        intervalsByItem.computeIfPresent(itemId, (id, intervals) -> {
+            intervals.add(start, end);
+            return intervals;
+        });
+    }
+
+    private ApprovedIntervals load(Long itemId) {
+        ApprovedIntervals intervals = new ApprovedIntervals();
+        for (BookingDto booking : repository.findAllIntervalsByItemIdAndStatus(itemId, StatusOfBooking.APPROVED)) {
+            intervals.add(booking.getStart(), booking.getEnd());
+        }
+        log.debug("Загружены подтвержденные бронирования вещи {}: {} интервалов", itemId, intervals.size());
+        return intervals;
+    }
+}
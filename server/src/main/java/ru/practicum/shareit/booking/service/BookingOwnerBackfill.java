@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class BookingOwnerBackfill {
+
+    // версия поднимается, чтобы загруженное до заполнения бронирование не сохранилось поверх него
+    private static final String BACKFILL_BATCH = "UPDATE bookings " +
+            "SET item_owner_id = (SELECT i.owner_id FROM items i WHERE i.id = bookings.item_id), " +
+            "version = version + 1 " +
+            "WHERE id > ? AND id <= ? AND item_owner_id IS NULL AND item_id IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskExecutor taskExecutor;
+    private final boolean enabled;
+    private final boolean backfillEnabled;
+    private final int batchSize;
+    private volatile boolean completed;
+
+    public BookingOwnerBackfill(JdbcTemplate jdbcTemplate, TaskExecutor taskExecutor,
+                                @Value("${shareit.booking.owner-denormalized.enabled:true}") boolean enabled,
+                                @Value("${shareit.booking.owner-backfill.enabled:true}") boolean backfillEnabled,
+                                @Value("${shareit.booking.owner-backfill.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.enabled = enabled;
+        this.backfillEnabled = backfillEnabled;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isCompleted() {
+        return enabled && completed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && backfillEnabled) {
+            taskExecutor.execute(this::run);
+        }
+    }
+
+    public void run() {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM bookings", Long.class);
+            long updated = 0;
+            // Пакеты по диапазонам id: каждый UPDATE в своей транзакции и держит блокировки недолго
+            for (long lastId = 0; maxId != null && lastId < maxId; lastId += batchSize) {
+                // пул задач прерывает поток при остановке контекста, незаполненные строки дождутся следующего запуска
+                if (Thread.currentThread().isInterrupted()) {
+                    log.info("Заполнение item_owner_id в бронированиях прервано, обновлено строк: {}", updated);
+                    return;
+                }
+                updated += jdbcTemplate.update(BACKFILL_BATCH, lastId, lastId + batchSize);
+            }
+            completed = true;
+            log.info("Заполнение item_owner_id в бронированиях завершено, обновлено строк: {}", updated);
+        } catch (RuntimeException e) {
+            log.error("Не удалось заполнить item_owner_id в бронированиях, выборки владельца идут через join", e);
+        }
+    }
+}
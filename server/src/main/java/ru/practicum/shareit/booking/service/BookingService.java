@@ -1,10 +1,16 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface BookingService {
 
@@ -14,7 +20,17 @@ public interface BookingService {
 
     List<Booking> findAllByOwner(Integer from, Integer size, Long userId, State state);
 
+    Slice<Booking> findAllByUserAfter(String cursor, Integer size, Long userId, State state);
+
+    Slice<Booking> findAllByOwnerAfter(String cursor, Integer size, Long userId, State state);
+
     Booking findById(Long id, Long userId);
 
+    Booking findById(Long id, Long userId, Predicate<String> notModified);
+
+    void exportAll(Consumer<BookingExportDto> action);
+
     Booking changeStatus(Long bookingId, Long userId, Boolean approved);
+
+    List<BookingDecisionResultDto> changeStatuses(List<BookingDecisionDto> decisions, Long userId);
 }
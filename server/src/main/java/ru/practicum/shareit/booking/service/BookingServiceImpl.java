@@ -2,15 +2,27 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.EntityTags;
+import ru.practicum.shareit.ExportPages;
+import ru.practicum.shareit.ResponseCacheInvalidation;
+import ru.practicum.shareit.RetryOnConflict;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.BookingExportDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingBatchRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.AlreadyBookedException;
 import ru.practicum.shareit.exceptions.AuntificationException;
@@ -18,11 +30,22 @@ import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.exceptions.WrongParametersException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -34,6 +57,10 @@ public class BookingServiceImpl implements BookingService {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingMapper bookingMapper;
+    private final BookingAvailability bookingAvailability;
+    private final BookingOwnerBackfill ownerBackfill;
+    private final ResponseCacheInvalidation cacheInvalidation;
+    private final BookingBatchRepository batchRepository;
 
     @Override
     public List<Booking> findAllByUser(Integer from, Integer size, Long userId, State state) {
@@ -65,28 +92,76 @@ public class BookingServiceImpl implements BookingService {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого создается бронирование, не существует");
         }
-        Pageable pageable = PageRequest.of(from / size, size);
+        return findPage(true, userId, state, BookingCursor.first(), PageRequest.of(from / size, size)).getContent();
+    }
+
+    @Override
+    public Slice<Booking> findAllByUserAfter(String cursor, Integer size, Long userId, State state) {
+        if (!userService.userExistById(userId)) {
+            throw new NotFoundAnythingException("Пользователя, от лица которого создается бронирование, не существует");
+        }
+        return findPage(false, userId, state, BookingCursor.decode(cursor), PageRequest.of(0, size));
+    }
+
+    @Override
+    public Slice<Booking> findAllByOwnerAfter(String cursor, Integer size, Long userId, State state) {
+        if (!userService.userExistById(userId)) {
+            throw new NotFoundAnythingException("Пользователя, от лица которого создается бронирование, не существует");
+        }
+        return findPage(true, userId, state, BookingCursor.decode(cursor), PageRequest.of(0, size));
+    }
+
+    private Slice<Booking> findPage(boolean byOwner, Long userId, State state, BookingCursor cursor, Pageable pageable) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StatusOfBooking> statuses = List.of(StatusOfBooking.values());
+        LocalDateTime startAfter = BookingCursor.MIN_DATE;
+        LocalDateTime startBefore = BookingCursor.MAX_DATE;
+        LocalDateTime endAfter = BookingCursor.MIN_DATE;
+        LocalDateTime endBefore = BookingCursor.MAX_DATE;
         switch (state) {
             case ALL:
-                return repository.findAllByItemOwnerIdOrderByEndDesc(userId, pageable).getContent();
+                break;
             case CURRENT:
-                return repository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByEndDesc(userId,
-                        LocalDateTime.now(), LocalDateTime.now(), pageable).getContent();
+                startBefore = now;
+                endAfter = now;
+                break;
             case PAST:
-                return repository.findAllByItemOwnerIdAndEndBeforeOrderByEndDesc(userId, LocalDateTime.now(), pageable).getContent();
+                endBefore = now;
+                break;
             case FUTURE:
-                return repository.findAllByItemOwnerIdAndStartAfterOrderByEndDesc(userId, LocalDateTime.now(), pageable).getContent();
+                startAfter = now;
+                break;
             case WAITING:
-                return repository.findAllByItemOwnerIdAndStatusOrderByEndDesc(userId, StatusOfBooking.WAITING, pageable).getContent();
+                statuses = List.of(StatusOfBooking.WAITING);
+                break;
             case REJECTED:
-                return repository.findAllByItemOwnerIdAndStatusOrderByEndDesc(userId, StatusOfBooking.REJECTED, pageable).getContent();
+                statuses = List.of(StatusOfBooking.REJECTED);
+                break;
             default:
                 throw new NotFoundAnythingException("Передан неверный статус");
         }
+        // Оба запроса владельца сортируют и режут страницы одинаково, а item_owner_id после заполнения всегда равен
+        // items.owner_id: новые строки заполняет Booking.fillOwnerId, смену владельца переносит внешний ключ
+        // fk_bookings_item_owner. Поэтому переключение посреди листания не меняет содержимое страниц
+        if (byOwner && ownerBackfill.isCompleted()) {
+            return repository.findDenormalizedOwnerPage(userId, statuses, startAfter, startBefore, endAfter, endBefore,
+                    cursor.getEnd(), cursor.getId(), pageable);
+        }
+        if (byOwner) {
+            return repository.findOwnerPage(userId, statuses, startAfter, startBefore, endAfter, endBefore,
+                    cursor.getEnd(), cursor.getId(), pageable);
+        }
+        return repository.findBookerPage(userId, statuses, startAfter, startBefore, endAfter, endBefore,
+                cursor.getEnd(), cursor.getId(), pageable);
     }
 
     @Override
     public Booking findById(Long id, Long userId) {
+        return findById(id, userId, tag -> false);
+    }
+
+    @Override
+    public Booking findById(Long id, Long userId, Predicate<String> notModified) {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого происходит поиск бронирования, не существует");
         }
@@ -95,7 +170,19 @@ public class BookingServiceImpl implements BookingService {
         if (!(booking.getBooker().getId().equals(userId) || booking.getItem().getOwner().getId().equals(userId))) {
             throw new AuntificationException("У вас нет доступа к получению данных об этом бронировании");
         }
-        return booking;
+        Item item = booking.getItem();
+        ItemRequest request = item.getRequest();
+        String tag = EntityTags.of(booking.getId(), booking.getVersion(), item.getVersion(),
+                booking.getBooker().getVersion(), item.getOwner().getVersion(),
+                request != null ? request.getVersion() : null,
+                request != null && request.getRequestor() != null ? request.getRequestor().getVersion() : null);
+        return notModified.test(tag) ? null : booking;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public void exportAll(Consumer<BookingExportDto> action) {
+        ExportPages.forEach(repository::findExportPage, BookingExportDto::getId, action);
     }
 
     @Transactional
@@ -104,12 +191,8 @@ public class BookingServiceImpl implements BookingService {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого создается бронирование, не существует");
         }
-        if (!itemService.itemExistById(bookingDto.getItemId())) {
-            throw new NotFoundAnythingException("Вещи, на которую создается бронирование, не существует");
-        }
         Item item = itemService.findById(bookingDto.getItemId());
-        User owner = userService.findById(item.getOwner().getId());
-        if (owner.getId().equals(userId)) {
+        if (item.getOwner().getId().equals(userId)) {
             throw new AuntificationException("Невозможно забронировать собственную вещь");
         }
         if (!item.getAvailable()) {
@@ -118,37 +201,115 @@ public class BookingServiceImpl implements BookingService {
         if (bookingDto.getEnd().isBefore(bookingDto.getStart()) || bookingDto.getEnd().isEqual(bookingDto.getStart())) {
             throw new WrongParametersException("Введены некорректные параметры даты старта/окончания бронирования");
         }
-        if (checkIntersectionsWithExistedBookings(bookingDto)) {
+        if (bookingAvailability.overlaps(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
             throw new WrongParametersException("Введенное вами бронирование пересекается с уже существующими");
         }
         log.debug("Добавлено новое бронирование: {}", bookingDto);
-        Booking booking = bookingMapper.toBookingCreation(bookingDto);
+        Booking booking = bookingMapper.toBookingCreation(bookingDto, item);
         booking.setBooker(userService.findById(userId));
         booking.setStatus(StatusOfBooking.WAITING);
         return repository.save(booking);
     }
 
-    private boolean checkIntersectionsWithExistedBookings(CreateBookingDto newBookingDto) {
-        for (Booking booking : repository.findAllByItemId(newBookingDto.getItemId())) {
-            if (booking.getStatus().equals(StatusOfBooking.APPROVED)
-                    && ((newBookingDto.getStart().isAfter(booking.getStart())
-                    && newBookingDto.getStart().isBefore(booking.getEnd()))
-                    || (newBookingDto.getEnd().isAfter(booking.getStart())
-                    && newBookingDto.getEnd().isBefore(booking.getEnd())))) {
-                return true;
-            }
+    @RetryOnConflict
+    @Transactional
+    @Override
+    public Booking changeStatus(Long bookingId, Long userId, Boolean approved) {
+        if (!userService.userExistById(userId)) {
+            throw new NotFoundAnythingException("Пользователя, от лица которого изменяется бронирование, не существует");
+        }
+        Booking booking = repository.findById(bookingId).orElse(null);
+        checkDecision(booking, userId, approved);
+        if (approved) {
+            bookingAvailability.checkBeforeApprove(booking);
+            booking.setStatus(StatusOfBooking.APPROVED);
+            bookingAvailability.approved(booking);
+        } else {
+            booking.setStatus(StatusOfBooking.REJECTED);
         }
-        return false;
+        Booking savedBooking;
+        try {
+            savedBooking = repository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw new AlreadyBookedException(BookingAvailability.PERIOD_ALREADY_BOOKED);
+        }
+        // подтвержденные бронирования показываются владельцу как ближайшие
+        cacheInvalidation.itemChanged(booking.getItem());
+        return savedBooking;
     }
 
+    @RetryOnConflict
     @Transactional
     @Override
-    public Booking changeStatus(Long bookingId, Long userId, Boolean approved) {
+    public List<BookingDecisionResultDto> changeStatuses(List<BookingDecisionDto> decisions, Long userId) {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого изменяется бронирование, не существует");
         }
-        Booking booking = repository.findById(bookingId).orElseThrow(() ->
-                new NotFoundAnythingException("Бронирования с данным id не существует"));
+        if (decisions == null || decisions.isEmpty()) {
+            throw new WrongParametersException("Не передано ни одного решения по бронированиям");
+        }
+        if (decisions.stream().anyMatch(Objects::isNull)) {
+            throw new WrongParametersException("Решение по бронированию не может быть пустым");
+        }
+        Set<Long> ids = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // владелец проверяется по уже загруженным вещам, без отдельного запроса на каждое бронирование
+        Map<Long, Booking> bookings = (ids.isEmpty() ? List.<Booking>of() : repository.findAllWithItemByIdIn(ids))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingDecisionResultDto> results = new ArrayList<>();
+        Map<Long, BookingDecisionResultDto> accepted = new HashMap<>();
+        List<Booking> approvals = new ArrayList<>();
+        List<Booking> rejections = new ArrayList<>();
+        for (BookingDecisionDto decision : decisions) {
+            Booking booking = bookings.get(decision.getBookingId());
+            String error = decisionError(booking, userId, decision.getApproved());
+            if (error == null && accepted.containsKey(booking.getId())) {
+                error = "Решение по этому бронированию уже передано";
+            }
+            BookingDecisionResultDto result = new BookingDecisionResultDto(decision.getBookingId(), null, error);
+            results.add(result);
+            if (error != null) {
+                continue;
+            }
+            accepted.put(booking.getId(), result);
+            if (decision.getApproved()) {
+                approvals.add(booking);
+            } else {
+                rejections.add(booking);
+            }
+        }
+        Set<Long> conflicting = new HashSet<>(bookingAvailability.findOverlapping(approvals));
+        approvals.removeIf(booking -> conflicting.contains(booking.getId()));
+        // нарушение ограничения базы отклоняет только свое бронирование, остальные решения сохраняются
+        conflicting.addAll(batchRepository.updateStatus(approvals, StatusOfBooking.APPROVED));
+        conflicting.addAll(batchRepository.updateStatus(rejections, StatusOfBooking.REJECTED));
+        approvals.removeIf(booking -> conflicting.contains(booking.getId()));
+        rejections.removeIf(booking -> conflicting.contains(booking.getId()));
+        conflicting.forEach(id -> accepted.get(id).setError(BookingAvailability.PERIOD_ALREADY_BOOKED));
+        for (Booking booking : approvals) {
+            accepted.get(booking.getId()).setStatus(StatusOfBooking.APPROVED);
+            bookingAvailability.approved(booking);
+        }
+        rejections.forEach(booking -> accepted.get(booking.getId()).setStatus(StatusOfBooking.REJECTED));
+        Stream.concat(approvals.stream(), rejections.stream())
+                .map(Booking::getItem)
+                .distinct()
+                .forEach(cacheInvalidation::itemChanged);
+        log.debug("Пользователь {} изменил статусы {} бронирований", userId, approvals.size() + rejections.size());
+        return results;
+    }
+
+    // проверки общие для одиночного и пакетного изменения статуса
+    private void checkDecision(Booking booking, Long userId, Boolean approved) {
+        if (approved == null) {
+            throw new WrongParametersException("Не указано, подтверждается ли бронирование");
+        }
+        if (booking == null) {
+            throw new NotFoundAnythingException("Бронирования с данным id не существует");
+        }
         if (!booking.getItem().getOwner().getId().equals(userId)) {
             throw new AuntificationException("У вас нет доступа к изменению статуса этого бронирования");
         }
@@ -158,11 +319,16 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getStatus().equals(StatusOfBooking.APPROVED)) {
             throw new AlreadyBookedException("Эта бронь уже подтверждена!");
         }
-        if (Boolean.TRUE.equals(approved)) {
-            booking.setStatus(StatusOfBooking.APPROVED);
-        } else {
-            booking.setStatus(StatusOfBooking.REJECTED);
+    }
+
+    // в пакете ошибка проверки относится к одному решению и не прерывает остальные
+    private String decisionError(Booking booking, Long userId, Boolean approved) {
+        try {
+            checkDecision(booking, userId, approved);
+            return null;
+        } catch (WrongParametersException | NotFoundAnythingException | AuntificationException
+                 | AlreadyBookedException e) {
+            return e.getMessage();
         }
-        return repository.save(booking);
     }
 }
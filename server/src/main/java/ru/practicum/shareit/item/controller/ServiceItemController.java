@@ -1,7 +1,11 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.NdjsonWriter;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBookingsComments;
@@ -14,13 +18,15 @@ import java.util.List;
 @AllArgsConstructor
 public class ServiceItemController {
     private final ItemService itemService;
+    private final NdjsonWriter ndjsonWriter;
     private final String userIdHeader = "X-Sharer-User-Id";
 
     @GetMapping
     public List<ItemDtoBookingsComments> findAllByUser(@RequestParam(defaultValue = "0") Integer from,
                                                        @RequestParam(defaultValue = "10") Integer size,
+                                                       @RequestParam(required = false) Long lastId,
                                                        @RequestHeader(value = userIdHeader) Long userId) {
-        return itemService.findAllByUser(from, size, userId);
+        return itemService.findAllByUser(from, size, lastId, userId);
     }
 
     @GetMapping("/search")
@@ -31,10 +37,19 @@ public class ServiceItemController {
         return itemService.findAllByText(from, size, text, userId);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(NdjsonWriter.NDJSON)
+                .body(ndjsonWriter.write(itemService::exportAll));
+    }
+
     @GetMapping("/{itemId}")
     public ItemDtoBookingsComments find(@PathVariable Long itemId,
-                                        @RequestHeader(value = userIdHeader) Long userId) {
-        return itemService.findDtoById(itemId, userId);
+                                        @RequestHeader(value = userIdHeader) Long userId,
+                                        WebRequest request) {
+        // при совпадении If-None-Match ответ 304 уходит без тела
+        return itemService.findDtoById(itemId, userId, request::checkNotModified);
     }
 
     @PostMapping
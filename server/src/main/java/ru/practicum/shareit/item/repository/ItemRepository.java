@@ -3,18 +3,47 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    List<Item> findAllByOwnerIdOrderById(Long userId, Pageable pageable);
+    List<Item> findAllByOwnerIdAndAvailableTrueOrderById(Long userId, Pageable pageable);
+
+    List<Item> findAllByOwnerIdAndAvailableTrueAndIdGreaterThanOrderById(Long userId, Long lastId, Pageable pageable);
 
     @Query(value = "select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            " or upper(i.description) like upper(concat('%', ?1, '%'))")
-    List<Item> findAllByText(String text, Pageable pageable);
+            "where i.available = true " +
+            "and (upper(i.name) like upper(concat('%', ?1, '%')) " +
+            " or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
+    List<Item> findAvailableByText(String text, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "from Item i left join i.request r " +
+            "where i.available = true")
+    List<ItemDto> findAllAvailableForIndex();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.request.id = ?1 " +
+            "order by i.id")
+    List<ItemDto> findDtosByRequestId(Long requestId);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.request.id) " +
+            "from Item i " +
+            "where i.request.id in ?1 " +
+            "order by i.id")
+    List<ItemDto> findDtosByRequestIdIn(Collection<Long> requestIds);
 
-    List<Item> findAllByRequestId(Long requestsId);
+    @Query("select new ru.practicum.shareit.item.dto.ItemExportDto(i.id, i.name, i.description, i.available, " +
+            "i.owner.id, r.id) " +
+            "from Item i left join i.request r " +
+            "where i.id > ?1 " +
+            "order by i.id")
+    List<ItemExportDto> findExportPage(Long afterId, Pageable pageable);
 }
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.AfterCommit;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+public class ItemSearchIndex {
+
+    private final ItemRepository repository;
+    private final boolean enabled;
+    // не synchronized: построение индекса читает базу, и монитор закрепил бы виртуальный поток за несущим
+    private final Lock indexLock = new ReentrantLock();
+    private volatile ItemTextIndex index;
+
+    public ItemSearchIndex(ItemRepository repository,
+                           @Value("${shareit.item.search-index.enabled:false}") boolean enabled) {
+        this.repository = repository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Long> search(String text, int from, int size) {
+        return index().search(text, from, size);
+    }
+
+    public void saved(Item item) {
+        if (!enabled) {
+            return;
+        }
+        Long id = item.getId();
+        String name = item.getName();
+        String description = item.getDescription();
+        boolean available = Boolean.TRUE.equals(item.getAvailable());
+        AfterCommit.run(() -> {
+            if (available) {
+                index().put(id, name, description);
+            } else {
+                index().remove(id);
+            }
+        });
+    }
+
+    public void deleted(Long itemId) {
+        if (enabled) {
+            AfterCommit.run(() -> index().remove(itemId));
+        }
+    }
+
+    private ItemTextIndex index() {
+        ItemTextIndex current = index;
+        if (current == null) {
+            indexLock.lock();
+            try {
+                current = index;
+                if (current == null) {
+                    current = new ItemTextIndex();
+                    for (ItemDto item : repository.findAllAvailableForIndex()) {
+                        current.put(item.getId(), item.getName(), item.getDescription());
+                    }
+                    log.debug("Построен поисковый индекс вещей: {} записей", current.size());
+                    index = current;
+                }
+            } finally {
+                indexLock.unlock();
+            }
+        }
+        return current;
+    }
+}
@@ -3,20 +3,27 @@ package ru.practicum.shareit.item.service;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBookingsComments;
+import ru.practicum.shareit.item.dto.ItemExportDto;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface ItemService {
 
     List<Item> findAll();
 
-    List<ItemDtoBookingsComments> findAllByUser(Integer from, Integer size, Long userId);
+    void exportAll(Consumer<ItemExportDto> action);
+
+    List<ItemDtoBookingsComments> findAllByUser(Integer from, Integer size, Long lastId, Long userId);
 
     List<ItemDtoBookingsComments> findAllByText(Integer from, Integer size, String text, Long userId);
 
     ItemDtoBookingsComments findDtoById(Long id, Long userId);
 
+    ItemDtoBookingsComments findDtoById(Long id, Long userId, Predicate<String> notModified);
+
     Item findById(Long id);
 
     ItemDto createItem(ItemDto itemDto, Long ownerId);
@@ -6,17 +6,24 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.EntityCacheEviction;
+import ru.practicum.shareit.EntityTags;
+import ru.practicum.shareit.EntityVersions;
+import ru.practicum.shareit.ExportPages;
+import ru.practicum.shareit.ResponseCacheInvalidation;
+import ru.practicum.shareit.RetryOnConflict;
 import ru.practicum.shareit.booking.dto.BookingDto;
-import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.StatusOfBooking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.exceptions.WrongParametersException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBookingsComments;
+import ru.practicum.shareit.item.dto.ItemExportDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.CommentMapper;
 import ru.practicum.shareit.item.model.Item;
@@ -28,11 +35,12 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
-
-import static java.util.Comparator.comparing;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
@@ -44,81 +52,101 @@ public class ItemServiceImpl implements ItemService {
     private final CommentRepository commentRepository;
     private final CommentMapper commentMapper;
     private final BookingRepository bookingRepository;
-    private final BookingMapper bookingMapper;
     private final ItemMapper itemMapper;
+    private final ItemSearchIndex searchIndex;
+    private final ResponseCacheInvalidation cacheInvalidation;
+    private final EntityVersions entityVersions;
+    private final EntityCacheEviction entityCacheEviction;
 
     @Override
     public List<Item> findAll() {
         return repository.findAll();
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public void exportAll(Consumer<ItemExportDto> action) {
+        ExportPages.forEach(repository::findExportPage, ItemExportDto::getId, action);
+    }
+
     private BookingDto findNextBooking(Long itemId) {
-        System.out.println(LocalDateTime.now());
-        List<Booking> bookings = bookingRepository.findAllByItemIdAndStartAfterAndStatus(itemId,
-                LocalDateTime.now(), StatusOfBooking.APPROVED);
-        System.out.println("\nnextbookings: " + bookings + "\n");
-        if (!bookings.isEmpty()) {
-            Booking nextBooking = bookings.stream()
-                    .min(comparing(Booking::getStart))
-                    .orElse(null);
-            System.out.println("\nnextbooking: " + nextBooking + "\n");
-            return bookingMapper.toBookingDto(nextBooking);
-        }
-        System.out.println("\nnextbooking: " + null + "\n");
-        return null;
+        return bookingRepository.findNextBooking(itemId, StatusOfBooking.APPROVED, LocalDateTime.now(),
+                PageRequest.of(0, 1)).stream().findFirst().orElse(null);
     }
 
     private BookingDto findLastBooking(Long itemId) {
-        System.out.println(LocalDateTime.now());
-        List<Booking> bookings = bookingRepository.findAllByItemIdAndStartBeforeAndStatus(itemId,
-                LocalDateTime.now(), StatusOfBooking.APPROVED);
-        System.out.println("\nlastbookings: " + bookings + "\n");
-        if (!bookings.isEmpty()) {
-            Booking nextBooking = bookings.stream()
-                    .max(comparing(Booking::getEnd))
-                    .orElse(null);
-            System.out.println("\nlastbooking: " + nextBooking + "\n");
-            return bookingMapper.toBookingDto(nextBooking);
-        }
-        System.out.println("\nlastbooking: " + null + "\n");
-        return null;
-    }
-
-    private ItemDtoBookingsComments upgradeItem(Item item, Long userId) {
-        ItemDtoBookingsComments fullItem = itemMapper.toItemDtoBookingsComments(item);
+        return bookingRepository.findLastBooking(itemId, StatusOfBooking.APPROVED, LocalDateTime.now(),
+                PageRequest.of(0, 1)).stream().findFirst().orElse(null);
+    }
 
-        if (item.getOwner().getId().equals(userId)) {
-            BookingDto nextBookingDto = findNextBooking(item.getId());
-            fullItem.setNextBooking(nextBookingDto);
-            BookingDto lastBookingDto = findLastBooking(item.getId());
-            fullItem.setLastBooking(lastBookingDto);
-        }
+    private ItemDtoBookingsComments upgradeItem(Item item, BookingDto lastBooking, BookingDto nextBooking) {
+        ItemDtoBookingsComments fullItem = itemMapper.toItemDtoBookingsComments(item);
+        fullItem.setNextBooking(nextBooking);
+        fullItem.setLastBooking(lastBooking);
 
-        List<Comment> comments = commentRepository.findAllByItemId(item.getId());
         List<CommentDto> commentsDto = new ArrayList<>();
-        for (Comment comment : comments) {
+        for (CommentView comment : commentRepository.findViewsByItemIdIn(List.of(item.getId()))) {
             commentsDto.add(commentMapper.toCommentDto(comment));
         }
         fullItem.setComments(commentsDto);
         return fullItem;
     }
 
-    @Override
-    public List<ItemDtoBookingsComments> findAllByUser(Integer from, Integer size, Long userId) {
-        if (!userService.userExistById(userId)) {
-            throw new NotFoundAnythingException("Пользователя, по которому производится поиск вещи, не существует");
+    private List<ItemDtoBookingsComments> upgradeItems(List<Item> items, Long userId) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
         }
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Item> items = repository.findAllByOwnerIdOrderById(userId, pageable);
-        List<ItemDtoBookingsComments> fullItems = new ArrayList<>();
+        List<Long> itemIds = new ArrayList<>();
+        List<Long> ownedItemIds = new ArrayList<>();
         for (Item item : items) {
-            if (item.getAvailable()) {
-                fullItems.add(upgradeItem(item, userId));
+            itemIds.add(item.getId());
+            if (item.getOwner().getId().equals(userId)) {
+                ownedItemIds.add(item.getId());
             }
         }
+
+        Map<Long, BookingDto> nextBookings = new HashMap<>();
+        Map<Long, BookingDto> lastBookings = new HashMap<>();
+        if (!ownedItemIds.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            for (BookingDto booking : bookingRepository.findNextBookings(ownedItemIds, StatusOfBooking.APPROVED, now)) {
+                nextBookings.putIfAbsent(booking.getItemId(), booking);
+            }
+            for (BookingDto booking : bookingRepository.findLastBookings(ownedItemIds, StatusOfBooking.APPROVED, now)) {
+                lastBookings.putIfAbsent(booking.getItemId(), booking);
+            }
+        }
+
+        Map<Long, List<CommentDto>> comments = new HashMap<>();
+        for (CommentView comment : commentRepository.findViewsByItemIdIn(itemIds)) {
+            comments.computeIfAbsent(comment.getItemId(), id -> new ArrayList<>())
+                    .add(commentMapper.toCommentDto(comment));
+        }
+
+        List<ItemDtoBookingsComments> fullItems = new ArrayList<>();
+        for (Item item : items) {
+            ItemDtoBookingsComments fullItem = itemMapper.toItemDtoBookingsComments(item);
+            fullItem.setNextBooking(nextBookings.get(item.getId()));
+            fullItem.setLastBooking(lastBookings.get(item.getId()));
+            fullItem.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+            fullItems.add(fullItem);
+        }
         return fullItems;
     }
 
+    @Override
+    public List<ItemDtoBookingsComments> findAllByUser(Integer from, Integer size, Long lastId, Long userId) {
+        if (!userService.userExistById(userId)) {
+            throw new NotFoundAnythingException("Пользователя, по которому производится поиск вещи, не существует");
+        }
+        if (lastId != null) {
+            return upgradeItems(repository.findAllByOwnerIdAndAvailableTrueAndIdGreaterThanOrderById(userId, lastId,
+                    PageRequest.of(0, size)), userId);
+        }
+        Pageable pageable = PageRequest.of(from / size, size);
+        return upgradeItems(repository.findAllByOwnerIdAndAvailableTrueOrderById(userId, pageable), userId);
+    }
+
     @Override
     public List<ItemDtoBookingsComments> findAllByText(Integer from, Integer size, String text, Long userId) {
         if (!userService.userExistById(userId)) {
@@ -127,24 +155,59 @@ public class ItemServiceImpl implements ItemService {
         if (StringUtils.isBlank(text) || text.equals("")) {
             return List.of();
         }
+        if (searchIndex.isEnabled()) {
+            return upgradeItems(findIndexedByText(from, size, text), userId);
+        }
         Pageable pageable = PageRequest.of(from / size, size);
-        List<Item> items = repository.findAllByText(text, pageable);
-        List<ItemDtoBookingsComments> fullItems = new ArrayList<>();
-        for (Item item : items) {
-            if (item.getAvailable()) {
-                fullItems.add(upgradeItem(item, userId));
+        return upgradeItems(repository.findAvailableByText(text, pageable), userId);
+    }
+
+    private List<Item> findIndexedByText(Integer from, Integer size, String text) {
+        List<Long> ids = searchIndex.search(text, from / size * size, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> itemsById = new HashMap<>();
+        for (Item item : repository.findAllById(ids)) {
+            itemsById.put(item.getId(), item);
+        }
+        List<Item> items = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = itemsById.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                // вещь удалена каскадно вместе с владельцем
+                searchIndex.deleted(id);
             }
         }
-        return fullItems;
+        return items;
     }
 
     @Override
     public ItemDtoBookingsComments findDtoById(Long id, Long userId) {
+        return findDtoById(id, userId, tag -> false);
+    }
+
+    @Override
+    public ItemDtoBookingsComments findDtoById(Long id, Long userId, Predicate<String> notModified) {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого производится поиск вещи, не существует");
         }
         Item item = findById(id);
-        return upgradeItem(item, userId);
+        BookingDto lastBooking = null;
+        BookingDto nextBooking = null;
+        if (item.getOwner().getId().equals(userId)) {
+            nextBooking = findNextBooking(item.getId());
+            lastBooking = findLastBooking(item.getId());
+        }
+        // ближайшие бронирования сменяются со временем без изменения версии вещи, поэтому тоже входят в тег
+        String tag = EntityTags.of(item.getId(), item.getVersion(),
+                lastBooking != null ? lastBooking.getId() : null, nextBooking != null ? nextBooking.getId() : null);
+        if (notModified.test(tag)) {
+            return null;
+        }
+        return upgradeItem(item, lastBooking, nextBooking);
     }
 
     @Override
@@ -153,6 +216,7 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundAnythingException("Вещи с данным id не существует"));
     }
 
+    @RetryOnConflict
     @Override
     @Transactional
     public ItemDto createItem(ItemDto itemDto, Long ownerId) {
@@ -162,25 +226,32 @@ public class ItemServiceImpl implements ItemService {
         log.debug("Пользователем с id: {} была добавлена новая вещь: {}", ownerId, itemDto);
         Item newItem = itemMapper.toItem(itemDto);
         newItem.setOwner(userService.findById(ownerId));
-        return itemMapper.toItemDto(repository.save(newItem));
+        Item savedItem = repository.save(newItem);
+        searchIndex.saved(savedItem);
+        entityVersions.itemChanged(savedItem);
+        cacheInvalidation.itemChanged(savedItem);
+        return itemMapper.toItemDto(savedItem);
     }
 
+    @RetryOnConflict
     @Override
     @Transactional
     public ItemDto updateItem(Long itemId, ItemDto itemDto, Long ownerId) {
         if (!userService.userExistById(ownerId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого производится изменение вещи, не существует");
         }
-        if (!itemExistById(itemId)) {
-            throw new NotFoundAnythingException("Вещи, которую вы пытаетесь изменить, не существует");
-        }
-        Item item = findById(itemId);
+        Item item = repository.findById(itemId).orElseThrow(() ->
+                new NotFoundAnythingException("Вещи, которую вы пытаетесь изменить, не существует"));
         if (ownerId.equals(item.getOwner().getId())) {
             Optional.ofNullable(itemDto.getName()).ifPresent(item::setName);
             Optional.ofNullable(itemDto.getDescription()).ifPresent(item::setDescription);
             Optional.ofNullable(itemDto.getAvailable()).ifPresent(item::setAvailable);
             log.debug("Обновлена вещь: {}", item);
-            return itemMapper.toItemDto(repository.save(item));
+            Item savedItem = repository.save(item);
+            searchIndex.saved(savedItem);
+            entityVersions.itemChanged(savedItem);
+            cacheInvalidation.itemChanged(savedItem);
+            return itemMapper.toItemDto(savedItem);
         } else {
             log.debug("Произошла ошибка: ID пользователя не соответсвует владельцу вещи");
             throw new NotFoundAnythingException("ID пользователя не соответсвует владельцу вещи");
@@ -188,59 +259,53 @@ public class ItemServiceImpl implements ItemService {
 
     }
 
+    @RetryOnConflict
     @Override
     @Transactional
     public void deleteItem(Long itemId, Long userId) {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого удаляется комментарий, не существует");
         }
-        if (!itemExistById(itemId)) {
-            throw new NotFoundAnythingException("Вещи, которую вы пытаетесь удалить, не существует");
-        }
-        if (!userId.equals(findById(itemId).getOwner().getId())) {
+        Item item = repository.findById(itemId).orElseThrow(() ->
+                new NotFoundAnythingException("Вещи, которую вы пытаетесь удалить, не существует"));
+        if (!userId.equals(item.getOwner().getId())) {
             log.debug("Произошла ошибка: ID пользователя не соответсвует владельцу вещи");
             throw new NotFoundAnythingException("ID пользователя не соответсвует владельцу вещи");
         }
         log.debug("Удалена вещь с id : {}", itemId);
         repository.deleteById(itemId);
+        searchIndex.deleted(itemId);
+        entityCacheEviction.itemDeleted(itemId);
+        entityVersions.itemChanged(item);
+        cacheInvalidation.itemChanged(item);
     }
 
+    @RetryOnConflict
     @Override
     @Transactional
     public CommentDto createComment(CommentDto commentDto, Long itemId, Long userId) {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого создается комментарий, не существует");
         }
-        if (!itemExistById(itemId)) {
-            throw new NotFoundAnythingException("Вещи, к которой создается комментарий, не существует");
-        }
+        Item item = repository.findById(itemId).orElseThrow(() ->
+                new NotFoundAnythingException("Вещи, к которой создается комментарий, не существует"));
         if (commentDto.getText().equals("")) {
             throw new WrongParametersException("Поле текста комментария не  может быть пустым");
         }
         User author = userService.findById(userId);
-        List<Booking> bookings = bookingRepository.findAllByItemIdAndEndBeforeOrderByEndDesc(itemId, LocalDateTime.now());
-        boolean isBookedByThatUser = false;
-        for (Booking booking : bookings) {
-            if (booking.getBooker().getId().equals(userId)) {
-                isBookedByThatUser = true;
-            }
-        }
-        if (Boolean.FALSE.equals(isBookedByThatUser)) {
+        if (!bookingRepository.existsByItemIdAndBookerIdAndEndBefore(itemId, userId, LocalDateTime.now())) {
             throw new WrongParametersException("Написать отзыв может только человек, бронировавший вещь!");
         }
-        Comment comment = commentMapper.newtoComment(commentDto, findById(itemId), author, LocalDateTime.now());
-        return commentMapper.toCommentDto(commentRepository.save(comment));
+        Comment comment = commentMapper.newtoComment(commentDto, item, author, LocalDateTime.now());
+        CommentDto savedComment = commentMapper.toCommentDto(commentRepository.save(comment));
+        // отзывы показываются вместе с вещью
+        entityVersions.increment(item);
+        cacheInvalidation.itemChanged(item);
+        return savedComment;
     }
 
     @Override
     public boolean itemExistById(Long id) {
-        for (Item oldItem : repository.findAll()) {
-            if (Objects.equals(oldItem.getId(), id)) {
-                return true;
-            }
-        }
-        return false;
+        return id != null && repository.existsById(id);
     }
-
-
 }
@@ -0,0 +1,193 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class ItemTextIndex {
+    private static final long[] EMPTY = new long[0];
+    private static final int GRAM = 3;
+
+    // Ключи - n-граммы токенов длиной до GRAM: запрос не длиннее GRAM совпадает с ключом целиком,
+    // а длинный отбирается пересечением его триграмм и проверяется по сохраненному тексту
+    private final Map<String, long[]> namePostings = new HashMap<>();
+    private final Map<String, long[]> descriptionPostings = new HashMap<>();
+    private final Map<Long, String[]> textById = new HashMap<>();
+
+    public synchronized void put(Long id, String name, String description) {
+        remove(id);
+        String[] text = {normalize(name), normalize(description)};
+        for (String key : keys(text[0])) {
+            namePostings.put(key, insert(namePostings.getOrDefault(key, EMPTY), id));
+        }
+        for (String key : keys(text[1])) {
+            descriptionPostings.put(key, insert(descriptionPostings.getOrDefault(key, EMPTY), id));
+        }
+        textById.put(id, text);
+    }
+
+    public synchronized void remove(Long id) {
+        String[] text = textById.remove(id);
+        if (text == null) {
+            return;
+        }
+        delete(namePostings, keys(text[0]), id);
+        delete(descriptionPostings, keys(text[1]), id);
+    }
+
+    public synchronized int size() {
+        return textById.size();
+    }
+
+    public synchronized List<Long> search(String text, int from, int size) {
+        List<String> tokens = tokens(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        long[] inName = null;
+        long[] matched = null;
+        for (String token : tokens) {
+            long[] byName = lookup(namePostings, token, 0);
+            long[] byToken = union(byName, lookup(descriptionPostings, token, 1));
+            inName = inName == null ? byName : intersect(inName, byName);
+            matched = matched == null ? byToken : intersect(matched, byToken);
+        }
+        List<Long> result = new ArrayList<>(size);
+        int position = 0;
+        for (long id : inName) {
+            if (position++ >= from && result.size() < size) {
+                result.add(id);
+            }
+        }
+        for (long id : matched) {
+            if (Arrays.binarySearch(inName, id) < 0 && position++ >= from && result.size() < size) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalize(text).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private static Set<String> keys(String text) {
+        Set<String> keys = new HashSet<>();
+        for (String token : tokens(text)) {
+            for (int i = 0; i < token.length(); i++) {
+                for (int end = i + 1; end <= Math.min(i + GRAM, token.length()); end++) {
+                    keys.add(token.substring(i, end));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private long[] lookup(Map<String, long[]> postings, String token, int field) {
+        if (token.length() <= GRAM) {
+            return postings.getOrDefault(token, EMPTY);
+        }
+        List<long[]> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            grams.add(postings.getOrDefault(token.substring(i, i + GRAM), EMPTY));
+        }
+        grams.sort(Comparator.comparingInt(ids -> ids.length));
+        // один проход по самому короткому списку, остальные проверяются двоичным поиском
+        long[] shortest = grams.get(0);
+        long[] result = new long[shortest.length];
+        int k = 0;
+        candidates:
+        for (long id : shortest) {
+            for (int i = 1; i < grams.size(); i++) {
+                if (Arrays.binarySearch(grams.get(i), id) < 0) {
+                    continue candidates;
+                }
+            }
+            // триграммы могли найтись в разных токенах, поэтому подстрока проверяется по самому тексту
+            if (textById.get(id)[field].contains(token)) {
+                result[k++] = id;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static void delete(Map<String, long[]> postings, Set<String> keys, long id) {
+        for (String key : keys) {
+            long[] ids = postings.get(key);
+            int index = Arrays.binarySearch(ids, id);
+            if (ids.length == 1) {
+                postings.remove(key);
+            } else {
+                long[] result = new long[ids.length - 1];
+                System.arraycopy(ids, 0, result, 0, index);
+                System.arraycopy(ids, index + 1, result, index, ids.length - index - 1);
+                postings.put(key, result);
+            }
+        }
+    }
+
+    private static long[] insert(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        index = -index - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, index);
+        result[index] = id;
+        System.arraycopy(ids, index, result, index + 1, ids.length - index);
+        return result;
+    }
+
+    private static long[] union(long[] first, long[] second) {
+        long[] result = new long[first.length + second.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length || j < second.length) {
+            if (j == second.length || (i < first.length && first[i] < second[j])) {
+                result[k++] = first[i++];
+            } else if (i == first.length || second[j] < first[i]) {
+                result[k++] = second[j++];
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static long[] intersect(long[] first, long[] second) {
+        long[] result = new long[Math.min(first.length, second.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (second[j] < first[i]) {
+                j++;
+            } else {
+                result[k++] = first[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
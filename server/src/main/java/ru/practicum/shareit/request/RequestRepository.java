@@ -3,12 +3,27 @@ package ru.practicum.shareit.request;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByRequestorId(Long requestorid);
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(Long requestorId, Pageable pageable);
 
     Page<ItemRequest> findAllByRequestorIdNotOrderByCreatedDesc(Long userId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) " +
+            "from ItemRequest r " +
+            "where r.requestor.id = ?1 " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestDto> findStreamPage(Long requestorId, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.request.dto.ItemRequestDto(r.id, r.description, r.created) " +
+            "from ItemRequest r " +
+            "where r.requestor.id = ?1 and (r.created < ?2 or (r.created = ?2 and r.id < ?3)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequestDto> findStreamPageAfter(Long requestorId, LocalDateTime created, Long id, Pageable pageable);
 }
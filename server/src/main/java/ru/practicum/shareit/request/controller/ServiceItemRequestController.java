@@ -1,13 +1,20 @@
 package ru.practicum.shareit.request.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.RequestService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -15,6 +22,7 @@ import java.util.List;
 @AllArgsConstructor
 public class ServiceItemRequestController {
     private final RequestService service;
+    private final ObjectMapper objectMapper;
     private final String userIdHeader = "X-Sharer-User-Id";
 
     @PostMapping
@@ -24,8 +32,28 @@ public class ServiceItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> findAllByOwnerWithResponses(@RequestHeader(value = userIdHeader) Long userId) {
-        return service.findAllByOwnerWithResponses(userId);
+    public List<ItemRequestDto> findAllByOwnerWithResponses(@RequestParam(defaultValue = "0") Integer from,
+                                                            @RequestParam(required = false) Integer size,
+                                                            @RequestHeader(value = userIdHeader) Long userId) {
+        return service.findAllByOwnerWithResponses(from, size, userId);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public StreamingResponseBody streamAllByOwnerWithResponses(@RequestHeader(value = userIdHeader) Long userId) {
+        service.checkUserExists(userId);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                service.streamAllByOwnerWithResponses(userId, request -> {
+                    try {
+                        generator.writeObject(request);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
     }
 
     @GetMapping("/all")
@@ -37,7 +65,8 @@ public class ServiceItemRequestController {
 
     @GetMapping("/{requestId}")
     public ItemRequestDto findByIdWithResponses(@PathVariable Long requestId,
-                                                @RequestHeader(value = userIdHeader) Long userId) {
-        return service.findByIdWithResponses(requestId, userId);
+                                                @RequestHeader(value = userIdHeader) Long userId,
+                                                WebRequest request) {
+        return service.findByIdWithResponses(requestId, userId, request::checkNotModified);
     }
 }
@@ -2,25 +2,26 @@ package ru.practicum.shareit.request.dto;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RequiredArgsConstructor
 @Component
 public class RequestMapper {
     private final ItemRepository itemRepository;
-    private final ItemMapper itemMapper;
 
     public ItemRequestDto toRequestDto(ItemRequest itemRequest) {
         return new ItemRequestDto(
                 itemRequest.getId(),
                 itemRequest.getDescription(),
                 itemRequest.getCreated(),
-                itemMapper.toListItemDto(itemRepository.findAllByRequestId(itemRequest.getId()))
+                itemRepository.findDtosByRequestId(itemRequest.getId())
         );
     }
 
@@ -33,8 +34,26 @@ public class RequestMapper {
     public List<ItemRequestDto> toListRequestDto(List<ItemRequest> itemRequests) {
         List<ItemRequestDto> dtos = new ArrayList<>();
         for (ItemRequest request : itemRequests) {
-            dtos.add(toRequestDto(request));
+            dtos.add(new ItemRequestDto(request.getId(), request.getDescription(), request.getCreated()));
         }
-        return dtos;
+        return withItems(dtos);
+    }
+
+    public List<ItemRequestDto> withItems(List<ItemRequestDto> requests) {
+        if (requests.isEmpty()) {
+            return requests;
+        }
+        List<Long> requestIds = new ArrayList<>();
+        for (ItemRequestDto request : requests) {
+            requestIds.add(request.getId());
+        }
+        Map<Long, List<ItemDto>> items = new HashMap<>();
+        for (ItemDto item : itemRepository.findDtosByRequestIdIn(requestIds)) {
+            items.computeIfAbsent(item.getRequestId(), id -> new ArrayList<>()).add(item);
+        }
+        for (ItemRequestDto request : requests) {
+            request.setItems(items.getOrDefault(request.getId(), new ArrayList<>()));
+        }
+        return requests;
     }
 }
@@ -4,6 +4,8 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface RequestService {
 
@@ -13,9 +15,15 @@ public interface RequestService {
 
     void deleteById(Long id);
 
-    List<ItemRequestDto> findAllByOwnerWithResponses(Long userId);
+    List<ItemRequestDto> findAllByOwnerWithResponses(Integer from, Integer size, Long userId);
+
+    void checkUserExists(Long userId);
+
+    void streamAllByOwnerWithResponses(Long userId, Consumer<ItemRequestDto> action);
 
     List<ItemRequestDto> findAll(Integer from, Integer size, Long userId);
 
     ItemRequestDto findByIdWithResponses(Long requestId, Long userId);
+
+    ItemRequestDto findByIdWithResponses(Long requestId, Long userId, Predicate<String> notModified);
 }
@@ -5,7 +5,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.EntityTags;
+import ru.practicum.shareit.ExportPages;
 import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.request.RequestRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -15,7 +18,8 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
@@ -44,14 +48,39 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
-    public List<ItemRequestDto> findAllByOwnerWithResponses(Long userId) {
+    public List<ItemRequestDto> findAllByOwnerWithResponses(Integer from, Integer size, Long userId) {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого происходит поиск запросов, не существует");
         }
-        List<ItemRequest> requests = repository.findAllByRequestorId(userId);
+        Pageable pageable = size == null ? Pageable.unpaged() : PageRequest.of(from / size, size);
+        List<ItemRequest> requests = repository.findAllByRequestorIdOrderByCreatedDesc(userId, pageable);
         return requestMapper.toListRequestDto(requests);
     }
 
+    @Override
+    public void checkUserExists(Long userId) {
+        if (!userService.userExistById(userId)) {
+            throw new NotFoundAnythingException("Пользователя, от лица которого происходит поиск запросов, не существует");
+        }
+    }
+
+    // страницы читаются короткими транзакциями, как в ExportPages, но порядок тот же, что у постраничной выдачи:
+    // продолжаем с последней отданной пары (created, id)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public void streamAllByOwnerWithResponses(Long userId, Consumer<ItemRequestDto> action) {
+        Pageable pageable = PageRequest.of(0, ExportPages.PAGE_SIZE);
+        List<ItemRequestDto> requests = repository.findStreamPage(userId, pageable);
+        while (!requests.isEmpty()) {
+            requestMapper.withItems(requests).forEach(action);
+            if (requests.size() < ExportPages.PAGE_SIZE) {
+                break;
+            }
+            ItemRequestDto last = requests.get(requests.size() - 1);
+            requests = repository.findStreamPageAfter(userId, last.getCreated(), last.getId(), pageable);
+        }
+    }
+
     @Override
     public List<ItemRequestDto> findAll(Integer from, Integer size, Long userId) {
         if (!userService.userExistById(userId)) {
@@ -63,11 +92,21 @@ public class RequestServiceImpl implements RequestService {
 
     @Override
     public ItemRequestDto findByIdWithResponses(Long requestId, Long userId) {
+        return findByIdWithResponses(requestId, userId, tag -> false);
+    }
+
+    @Override
+    public ItemRequestDto findByIdWithResponses(Long requestId, Long userId, Predicate<String> notModified) {
         if (!userService.userExistById(userId)) {
             throw new NotFoundAnythingException("Пользователя, от лица которого происходит поиск запросов, не существует");
         }
-        return requestMapper.toRequestDto(repository.findById(requestId).orElseThrow(() ->
-                new NotFoundAnythingException("Запроса с данным id не существует")));
+        ItemRequest request = repository.findById(requestId).orElseThrow(() ->
+                new NotFoundAnythingException("Запроса с данным id не существует"));
+        // версия запроса поднимается и при изменении вещей, созданных в ответ на него
+        if (notModified.test(EntityTags.of(request.getId(), request.getVersion()))) {
+            return null;
+        }
+        return requestMapper.toRequestDto(request);
     }
 
     @Override
@@ -87,11 +126,6 @@ public class RequestServiceImpl implements RequestService {
     }
 
     public boolean requestAlreadyExist(Long requestId) {
-        for (ItemRequest oldRequest : repository.findAll()) {
-            if (Objects.equals(oldRequest.getId(), requestId)) {
-                return true;
-            }
-        }
-        return false;
+        return requestId != null && repository.existsById(requestId);
     }
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.user;
 
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.NdjsonWriter;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
@@ -13,12 +16,20 @@ import java.util.List;
 @AllArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final NdjsonWriter ndjsonWriter;
 
     @GetMapping
     public List<User> findAll() {
         return userService.findAll();
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(NdjsonWriter.NDJSON)
+                .body(ndjsonWriter.write(userService::exportAll));
+    }
+
     @GetMapping("/{userId}")
     public User find(@PathVariable Long userId) {
         return userService.findById(userId);
@@ -1,8 +1,26 @@
 package ru.practicum.shareit.user;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // проверка пользователя выполняется почти в каждом запросе; кэш запросов сбрасывается при любом изменении users
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    @Query("select case when count(u) > 0 then true else false end from User u where u.id = ?1")
+    boolean existsById(Long id);
+
+    boolean existsByEmail(String email);
+
+    boolean existsByEmailAndIdNot(String email, Long id);
+
+    @Query("select new ru.practicum.shareit.user.model.User(u.id, u.name, u.email) from User u " +
+            "where u.id > ?1 order by u.id")
+    List<User> findExportPage(Long afterId, Pageable pageable);
 }
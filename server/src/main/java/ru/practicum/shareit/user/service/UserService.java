@@ -4,11 +4,14 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     List<User> findAll();
 
+    void exportAll(Consumer<User> action);
+
     User findById(Long id);
 
     User createUser(UserDto user);
@@ -2,7 +2,13 @@ package ru.practicum.shareit.user.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.EntityCacheEviction;
+import ru.practicum.shareit.EntityVersions;
+import ru.practicum.shareit.ExportPages;
+import ru.practicum.shareit.ResponseCacheInvalidation;
+import ru.practicum.shareit.RetryOnConflict;
 import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.exceptions.SameFieldException;
 import ru.practicum.shareit.exceptions.SaveUserException;
@@ -15,6 +21,7 @@ import ru.practicum.shareit.user.model.User;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -23,10 +30,17 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository repository;
     private final UserMapper userMapper;
+    private final ResponseCacheInvalidation cacheInvalidation;
+    private final EntityCacheEviction entityCacheEviction;
+    private final EntityVersions entityVersions;
 
-    public UserServiceImpl(UserRepository repository, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository repository, UserMapper userMapper, ResponseCacheInvalidation cacheInvalidation,
+                           EntityCacheEviction entityCacheEviction, EntityVersions entityVersions) {
         this.repository = repository;
         this.userMapper = userMapper;
+        this.cacheInvalidation = cacheInvalidation;
+        this.entityCacheEviction = entityCacheEviction;
+        this.entityVersions = entityVersions;
     }
 
     @Override
@@ -34,6 +48,12 @@ public class UserServiceImpl implements UserService {
         return repository.findAll();
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Override
+    public void exportAll(Consumer<User> action) {
+        ExportPages.forEach(repository::findExportPage, User::getId, action);
+    }
+
     @Override
     public User findById(Long id) {
         return repository.findById(id).orElseThrow(() -> new NotFoundAnythingException("Пользователя с данным id не существует"));
@@ -57,10 +77,12 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    @RetryOnConflict
     @Transactional
     @Override
     public User updateUser(Long userId, UserDto userDto) {
         User user = findById(userId);
+        boolean renamed = userDto.getName() != null && !userDto.getName().equals(user.getName());
         Optional.ofNullable(userDto.getName()).ifPresent(user::setName);
         if (userDto.getEmail() != null) {
             if (!emailAlreadyExist(userDto.getEmail(), userId)) {
@@ -75,7 +97,13 @@ public class UserServiceImpl implements UserService {
         }
         if (userExistById(user.getId())) {
             log.debug("Обновлен пользователь: {}", user);
-            return repository.save(user);
+            User savedUser = repository.save(user);
+            // имя пользователя показывается в отзывах к вещам
+            if (renamed) {
+                entityVersions.userRenamed(userId);
+            }
+            cacheInvalidation.userChanged(userId);
+            return savedUser;
         } else {
             log.debug("Произошла ошибка: Введенного пользователя не существует");
             throw new NotFoundAnythingException("Такого пользователя не существует");
@@ -85,26 +113,22 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void deleteById(Long id) {
+        entityVersions.userDeleted(id);
         repository.deleteById(id);
+        entityCacheEviction.userDeleted(id);
+        cacheInvalidation.userChanged(id);
     }
 
     @Override
     public boolean emailAlreadyExist(String email, Long userId) {
-        for (User oldUser : repository.findAll()) {
-            if (Objects.equals(oldUser.getEmail(), email)
-                    && !Objects.equals(oldUser.getId(), userId)) {
-                return true;
-            }
+        if (userId == null) {
+            return repository.existsByEmail(email);
         }
-        return false;
+        return repository.existsByEmailAndIdNot(email, userId);
     }
 
+    @Override
     public boolean userExistById(Long id) {
-        for (User oldUser : repository.findAll()) {
-            if (Objects.equals(oldUser.getId(), id)) {
-                return true;
-            }
-        }
-        return false;
+        return id != null && repository.existsById(id);
     }
 }
@@ -0,0 +1,25 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- В PostgreSQL нет ADD CONSTRAINT IF NOT EXISTS: ограничения добавляются в базу, созданную до их появления,
+-- один раз. Тело DO в одинарных кавычках, чтобы загрузчик скрипта не разбил его по точке с запятой
+DO 'BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_bookings_approved_overlap'') THEN
+        ALTER TABLE bookings ADD CONSTRAINT ex_bookings_approved_overlap
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+            WHERE (status = ''APPROVED'');
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''uq_items_id_owner'') THEN
+        ALTER TABLE items ADD CONSTRAINT uq_items_id_owner UNIQUE (id, owner_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''fk_bookings_item_owner'') THEN
+        ALTER TABLE bookings ADD CONSTRAINT fk_bookings_item_owner FOREIGN KEY (item_id, item_owner_id)
+            REFERENCES items (id, owner_id) ON DELETE CASCADE ON UPDATE CASCADE;
+    END IF;
+END';
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (upper(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (upper(description) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_available ON items (owner_id, id) WHERE is_avaliable;
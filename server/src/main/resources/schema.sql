@@ -3,6 +3,7 @@ CREATE TABLE IF NOT EXISTS users
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name  VARCHAR(255)                            NOT NULL,
     email VARCHAR(512)                            NOT NULL,
+    version BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id),
     CONSTRAINT UQ_USER_EMAIL UNIQUE (email)
 );
@@ -13,6 +14,7 @@ CREATE TABLE IF NOT EXISTS requests
     description  VARCHAR(512)                            NOT NULL,
     requestor_id INTEGER REFERENCES users (id) ON DELETE CASCADE,
     created      TIMESTAMP WITHOUT TIME ZONE,
+    version      BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_request PRIMARY KEY (id)
 );
 
@@ -24,9 +26,13 @@ CREATE TABLE IF NOT EXISTS items
     is_avaliable BOOLEAN                                 NOT NULL,
     owner_id     INTEGER REFERENCES users (id) ON DELETE CASCADE,
     request_id   INTEGER REFERENCES requests (id) ON DELETE CASCADE,
-    CONSTRAINT pk_item PRIMARY KEY (id)
+    version      BIGINT DEFAULT 0                        NOT NULL,
+    CONSTRAINT pk_item PRIMARY KEY (id),
+    CONSTRAINT uq_items_id_owner UNIQUE (id, owner_id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
 CREATE TABLE IF NOT EXISTS comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -45,9 +51,27 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    INTEGER REFERENCES items (id) ON DELETE CASCADE,
     booker_id  INTEGER REFERENCES users (id) ON DELETE CASCADE,
     status     VARCHAR(10),
-    CONSTRAINT pk_booking PRIMARY KEY (id)
+    item_owner_id INTEGER,
+    version    BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_booking PRIMARY KEY (id),
+    -- item_owner_id либо пуст (строка ждет заполнения), либо совпадает с владельцем вещи и меняется вместе с ним
+    CONSTRAINT fk_bookings_item_owner FOREIGN KEY (item_id, item_owner_id)
+        REFERENCES items (id, owner_id) ON DELETE CASCADE ON UPDATE CASCADE
 );
 
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS item_owner_id INTEGER;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_end ON bookings (item_id, status, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_end ON bookings (booker_id, end_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_end ON bookings (item_owner_id, end_date DESC, id DESC);
+
 DELETE
 from users;
 DELETE
@@ -0,0 +1,180 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ConditionalGetTests {
+    private final MockMvc mvc;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final RequestRepository requestRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        request = requestRepository.save(new ItemRequest(null, "Need drill", booker, LocalDateTime.now()));
+        item = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, request));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void clean() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private MockHttpServletResponse perform(String path, Long userId, String etag) throws Exception {
+        return mvc.perform(get(path).header("X-Sharer-User-Id", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag != null ? etag : "\"none\""))
+                .andReturn().getResponse();
+    }
+
+    private String etag(String path, Long userId) throws Exception {
+        MockHttpServletResponse response = perform(path, userId, null);
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void itemNotModifiedSkipsEnrichmentTest() throws Exception {
+        String path = "/items/" + item.getId();
+        String etag = etag(path, booker.getId());
+
+        statistics.clear();
+        MockHttpServletResponse response = perform(path, booker.getId(), etag);
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getContentAsString());
+        // вещь и проверка пользователя берутся из кэша второго уровня, отзывы не загружаются
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void itemTagChangesWithCommentsAndBookingsTest() throws Exception {
+        String path = "/items/" + item.getId();
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                StatusOfBooking.APPROVED));
+        String guestTag = etag(path, booker.getId());
+
+        itemService.createComment(new CommentDto(null, "Good drill", null, null), item.getId(), booker.getId());
+        assertEquals(200, perform(path, booker.getId(), guestTag).getStatus());
+        // ближайшие бронирования видит только владелец
+        String ownerTag = etag(path, owner.getId());
+
+        Booking next = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                StatusOfBooking.WAITING));
+        assertEquals(304, perform(path, owner.getId(), ownerTag).getStatus());
+        bookingService.changeStatus(next.getId(), owner.getId(), true);
+        assertEquals(200, perform(path, owner.getId(), ownerTag).getStatus());
+    }
+
+    @Test
+    void itemTagChangesWhenCommentAuthorRenamedTest() throws Exception {
+        String path = "/items/" + item.getId();
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                StatusOfBooking.APPROVED));
+        itemService.createComment(new CommentDto(null, "Good drill", null, null), item.getId(), booker.getId());
+        String etag = etag(path, owner.getId());
+
+        userService.updateUser(booker.getId(), new UserDto(null, "booker2@mail.com"));
+        assertEquals(304, perform(path, owner.getId(), etag).getStatus());
+
+        userService.updateUser(booker.getId(), new UserDto("Renamed booker", null));
+        MockHttpServletResponse response = perform(path, owner.getId(), etag);
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"authorName\":\"Renamed booker\""));
+    }
+
+    @Test
+    void requestTagChangesWithItemsTest() throws Exception {
+        String path = "/requests/" + request.getId();
+        String etag = etag(path, booker.getId());
+        assertEquals(304, perform(path, booker.getId(), etag).getStatus());
+
+        itemService.updateItem(item.getId(), new ItemDto(null, "Drill 2", null, null, null), owner.getId());
+        assertEquals(200, perform(path, booker.getId(), etag).getStatus());
+        etag = etag(path, booker.getId());
+
+        itemService.createItem(new ItemDto(null, "Hammer", "Heavy", true, request.getId()), owner.getId());
+        assertEquals(200, perform(path, booker.getId(), etag).getStatus());
+        etag = etag(path, booker.getId());
+
+        // вещи владельца удаляются каскадно вместе с ним
+        userService.deleteById(owner.getId());
+        MockHttpServletResponse response = perform(path, booker.getId(), etag);
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"items\":[]"));
+    }
+
+    @Test
+    void bookingTagChangesWithStatusAndUsersTest() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                StatusOfBooking.WAITING));
+        String path = "/bookings/" + booking.getId();
+        String etag = etag(path, booker.getId());
+        assertEquals(304, perform(path, booker.getId(), etag).getStatus());
+
+        bookingService.changeStatus(booking.getId(), owner.getId(), true);
+        assertEquals(200, perform(path, booker.getId(), etag).getStatus());
+        etag = etag(path, booker.getId());
+
+        userService.updateUser(owner.getId(), new UserDto("Renamed owner", null));
+        assertEquals(200, perform(path, booker.getId(), etag).getStatus());
+    }
+}
@@ -165,9 +165,8 @@ public class DtoTests {
     @Test
     void testBookingDto() throws Exception {
         CreateBookingDto bookingCreationDto = new CreateBookingDto(start, end, itemId);
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         Booking booking = new Booking(start, end, item);
-        assertEquals(booking, bookingMapper.toBookingCreation(bookingCreationDto));
+        assertEquals(booking, bookingMapper.toBookingCreation(bookingCreationDto, item));
         BookingDto bookingDto = new BookingDto(bookingId, start, end, bookerId, itemId);
         booking = new Booking(bookerId, start, end, item,
                 new User(bookerId, "name", "email@gmail.com"), StatusOfBooking.WAITING);
@@ -186,8 +185,8 @@ public class DtoTests {
         List<ItemRequestDto> itemRequestDtos = List.of(itemRequestDto);
         JsonContent<ItemRequestDto> jsonDto = jsonItemRequestDto.write(itemRequestDto);
 
-        when(itemRepository.findAllByRequestId(requestId)).thenReturn(items);
-        when(itemMapperMock.toListItemDto(items)).thenReturn(List.of(itemDto));
+        when(itemRepository.findDtosByRequestId(requestId)).thenReturn(List.of(itemDto));
+        when(itemRepository.findDtosByRequestIdIn(List.of(requestId))).thenReturn(List.of(itemDto));
 
         assertThat(jsonDto).extractingJsonPathNumberValue("$.id").isEqualTo(1);
         assertThat(jsonDto).extractingJsonPathStringValue("$.description").isEqualTo("description");
@@ -0,0 +1,47 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExportPagesTests {
+
+    @Test
+    void readsAllRowsPageByPageTest() {
+        List<Long> table = LongStream.rangeClosed(1, 2L * ExportPages.PAGE_SIZE + 1).boxed()
+                .collect(Collectors.toList());
+        List<Long> afterIds = new ArrayList<>();
+        List<Long> exported = new ArrayList<>();
+
+        ExportPages.forEach((Long afterId, Pageable pageable) -> {
+            afterIds.add(afterId);
+            return table.stream()
+                    .filter(id -> id > afterId)
+                    .limit(pageable.getPageSize())
+                    .collect(Collectors.toList());
+        }, id -> id, exported::add);
+
+        assertEquals(table, exported);
+        assertEquals(List.of(0L, (long) ExportPages.PAGE_SIZE, 2L * ExportPages.PAGE_SIZE), afterIds);
+    }
+
+    @Test
+    void stopsAfterFullLastPageTest() {
+        List<Long> afterIds = new ArrayList<>();
+
+        ExportPages.forEach((Long afterId, Pageable pageable) -> {
+            afterIds.add(afterId);
+            return afterId == 0 ? LongStream.rangeClosed(1, ExportPages.PAGE_SIZE).boxed()
+                    .collect(Collectors.toList()) : List.<Long>of();
+        }, id -> id, id -> {
+        });
+
+        assertEquals(List.of(0L, (long) ExportPages.PAGE_SIZE), afterIds);
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class QueryCountTests {
+    private static final int ITEMS = 10;
+
+    private final MockMvc mvc;
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserRepository userRepository;
+    private final RequestRepository requestRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private User requestor;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void init() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        for (int i = 0; i < ITEMS; i++) {
+            requestor = userRepository.save(new User("Requestor" + i, "requestor" + i + "@mail.com"));
+            ItemRequest request = requestRepository.save(new ItemRequest(null, "Need drill " + i, requestor, now));
+            requestRepository.save(new ItemRequest(null, "Need saw " + i, requestor, now));
+            item = itemRepository.save(new Item(null, "Drill " + i, "Cordless drill", true, owner, request));
+            booking = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                    StatusOfBooking.APPROVED));
+            bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                    StatusOfBooking.APPROVED));
+            commentRepository.save(new Comment("Good drill", item, booker, now));
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clean() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // считаются запросы холодного пути: кэш второго уровня проверяется в SecondLevelCacheTests
+    private void clearStatistics() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    private long statementsFor(String url, Long userId) throws Exception {
+        clearStatistics();
+        mvc.perform(get(url).header("X-Sharer-User-Id", userId)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void bookingEndpointsTest() throws Exception {
+        assertEquals(2, statementsFor("/bookings?state=ALL&size=50", booker.getId()));
+        assertEquals(2, statementsFor("/bookings?state=ALL&size=50&cursor=", booker.getId()));
+        assertEquals(2, statementsFor("/bookings/owner?state=PAST&size=50", owner.getId()));
+        assertEquals(2, statementsFor("/bookings/" + booking.getId(), booker.getId()));
+    }
+
+    @Test
+    void itemEndpointsTest() throws Exception {
+        assertEquals(5, statementsFor("/items?size=50", owner.getId()));
+        assertEquals(3, statementsFor("/items/search?text=drill&size=50", booker.getId()));
+        assertEquals(5, statementsFor("/items/" + item.getId(), owner.getId()));
+    }
+
+    @Test
+    void requestEndpointsTest() throws Exception {
+        assertEquals(3, statementsFor("/requests/all?size=50", owner.getId()));
+        assertEquals(3, statementsFor("/requests", requestor.getId()));
+        assertEquals(3, statementsFor("/requests?from=0&size=1", requestor.getId()));
+
+        clearStatistics();
+        MvcResult started = mvc.perform(get("/requests/stream").header("X-Sharer-User-Id", requestor.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(2)))
+                .andExpect(jsonPath("$[1].items.length()", is(1)));
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private String export(String url) throws Exception {
+        MvcResult started = mvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+
+    @Test
+    void exportEndpointsTest() throws Exception {
+        clearStatistics();
+        assertEquals(ITEMS + 2, export("/users/export").lines().count());
+        assertEquals(ITEMS, export("/items/export").lines().count());
+        assertEquals(ITEMS * 2, export("/bookings/export").lines().count());
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResponseCacheInvalidationTests {
+    private final ResponseCacheInvalidation invalidation = new ResponseCacheInvalidation();
+
+    @AfterEach
+    void clean() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void tagsAreAddedToCurrentResponseTest() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        ItemRequest request = new ItemRequest();
+        request.setId(7L);
+        Item item = new Item(5L, "Дрель", "Простая дрель", true, null, request);
+
+        invalidation.itemChanged(item);
+        invalidation.userChanged(3L);
+
+        assertEquals(List.of("item:5", "request:7", "user:3"), response.getHeaders(ResponseCacheInvalidation.HEADER));
+    }
+
+    @Test
+    void outsideRequestNothingHappensTest() {
+        invalidation.userChanged(3L);
+    }
+}
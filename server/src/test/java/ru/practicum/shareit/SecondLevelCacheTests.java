@@ -0,0 +1,148 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.NotFoundAnythingException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.RequestRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SecondLevelCacheTests {
+    private static final int BOOKINGS = 50;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final RequestRepository requestRepository;
+    private final BookingRepository bookingRepository;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final BookingService bookingService;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private User owner;
+    private User booker;
+    private ItemRequest request;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        request = requestRepository.save(new ItemRequest(null, "Need drill", booker, LocalDateTime.now()));
+        item = itemRepository.save(new Item(null, "Drill", "Cordless drill", true, owner, request));
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+    }
+
+    @AfterEach
+    void clean() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        requestRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private long createBookings(Item item, boolean evict) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        statistics.clear();
+        for (int i = 0; i < BOOKINGS; i++) {
+            if (evict) {
+                sessionFactory.getCache().evictAllRegions();
+            }
+            bookingService.create(new CreateBookingDto(start.plusDays(2L * i), start.plusDays(2L * i + 1),
+                    item.getId()), booker.getId());
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void bookingCreateRoundTripsTest() {
+        Item saw = itemRepository.save(new Item(null, "Saw", "Hand saw", true, owner, null));
+        // прогрев: интервалы бронирований вещей загружаются в BookingAvailability один раз
+        createBookings(item, false);
+        createBookings(saw, false);
+        bookingRepository.deleteAll();
+
+        long warm = createBookings(saw, false);
+        long cold = createBookings(item, true);
+
+        log.info("{} бронирований: без кэша второго уровня {} запросов к базе, с кэшем {}", BOOKINGS, cold, warm);
+        // без кэша на каждое бронирование: проверка пользователя, вещь, бронирующий и вставка
+        assertEquals(4L * BOOKINGS, cold);
+        // с кэшем остается только вставка
+        assertEquals(BOOKINGS, warm);
+    }
+
+    @Test
+    void findByIdUsesCacheTest() {
+        userService.findById(owner.getId());
+        itemService.findById(item.getId());
+        requestRepository.findById(request.getId());
+
+        statistics.clear();
+        assertEquals("Owner", userService.findById(owner.getId()).getName());
+        assertEquals("Drill", itemService.findById(item.getId()).getName());
+        assertEquals("Need drill", requestRepository.findById(request.getId()).orElseThrow().getDescription());
+        assertTrue(userService.userExistById(owner.getId()));
+        assertTrue(userService.userExistById(owner.getId()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(3, statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void updateRefreshesCacheTest() {
+        userService.findById(owner.getId());
+        assertTrue(userService.userExistById(owner.getId()));
+
+        userService.updateUser(owner.getId(), new UserDto("New owner", null));
+        userRepository.save(new User("Another", "another@mail.com"));
+
+        statistics.clear();
+        assertEquals("New owner", userService.findById(owner.getId()).getName());
+        assertTrue(userService.userExistById(owner.getId()));
+        // запись в users сбрасывает закэшированный запрос, но не обновленную сущность
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void userDeleteEvictsCascadedEntitiesTest() {
+        itemService.findById(item.getId());
+        requestRepository.findById(request.getId());
+
+        // запрос booker удаляется каскадом в базе, а с ним и созданная в ответ вещь владельца
+        userService.deleteById(booker.getId());
+
+        assertThrows(NotFoundAnythingException.class, () -> itemService.findById(item.getId()));
+        assertTrue(requestRepository.findById(request.getId()).isEmpty());
+        assertEquals("Owner", userService.findById(owner.getId()).getName());
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles({"test", "virtual-threads"})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class VirtualThreadsConfigTests {
+    private final DataSource dataSource;
+    private final List<TomcatProtocolHandlerCustomizer<?>> customizers;
+
+    @Test
+    void virtualThreadsProfileTest() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertEquals(50, hikari.getMaximumPoolSize());
+        assertEquals(5000, hikari.getConnectionTimeout());
+        assertEquals(1, customizers.size());
+        assertEquals(Runtime.version().feature() >= 21,
+                VirtualThreadsConfig.newVirtualThreadPerTaskExecutor().isPresent());
+    }
+}
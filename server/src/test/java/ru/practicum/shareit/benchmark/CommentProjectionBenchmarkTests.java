@@ -0,0 +1,85 @@
+package ru.practicum.shareit.benchmark;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+// запускается только с профилем benchmark: mvn test -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class CommentProjectionBenchmarkTests {
+    private static final int COMMENTS = 200;
+    private static final int ROUNDS = 20;
+
+    private final CommentRepository commentRepository;
+    private final TestEntityManager entityManager;
+
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        User author = entityManager.persist(new User("Author", "author@mail.com"));
+        item = entityManager.persist(new Item(null, "Drill", "Cordless", true, author, null));
+        for (int i = 0; i < COMMENTS; i++) {
+            entityManager.persist(new Comment("Comment " + i, item, author, LocalDateTime.now()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private List<Comment> loadEntities() {
+        List<Comment> comments = entityManager.getEntityManager()
+                .createQuery("select c from Comment c join fetch c.author where c.item.id in ?1 order by c.id",
+                        Comment.class)
+                .setParameter(1, List.of(item.getId()))
+                .getResultList();
+        comments.forEach(comment -> comment.getAuthor().getName());
+        entityManager.clear();
+        return comments;
+    }
+
+    private List<CommentView> loadViews() {
+        List<CommentView> comments = commentRepository.findViewsByItemIdIn(List.of(item.getId()));
+        comments.forEach(CommentView::getAuthorName);
+        entityManager.clear();
+        return comments;
+    }
+
+    private long allocatedBytes(Supplier<List<?>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            query.get();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ROUNDS;
+    }
+
+    @Test
+    void projectionAndEntityAllocationTest() {
+        log.info("Отзывы сущностями: {} КБ на запрос", allocatedBytes(this::loadEntities) / 1_024);
+        log.info("Отзывы проекцией: {} КБ на запрос", allocatedBytes(this::loadViews) / 1_024);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.service.ApprovedIntervals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApprovedIntervalsTests {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    private LocalDateTime at(int hours) {
+        return base.plusHours(hours);
+    }
+
+    @Test
+    void overlapsTest() {
+        ApprovedIntervals intervals = new ApprovedIntervals();
+        intervals.add(at(10), at(20));
+
+        assertTrue(intervals.overlaps(at(12), at(15)));
+        assertTrue(intervals.overlaps(at(5), at(25)));
+        assertTrue(intervals.overlaps(at(5), at(11)));
+        assertTrue(intervals.overlaps(at(19), at(25)));
+        assertFalse(intervals.overlaps(at(0), at(10)));
+        assertFalse(intervals.overlaps(at(20), at(30)));
+    }
+
+    @Test
+    void addMergesIntervalsTest() {
+        ApprovedIntervals intervals = new ApprovedIntervals();
+        intervals.add(at(0), at(5));
+        intervals.add(at(10), at(15));
+        intervals.add(at(20), at(25));
+        assertEquals(3, intervals.size());
+
+        intervals.add(at(4), at(21));
+        assertEquals(1, intervals.size());
+        assertFalse(intervals.overlaps(at(25), at(30)));
+    }
+
+    @Test
+    void removeEndedBeforeTest() {
+        ApprovedIntervals intervals = new ApprovedIntervals();
+        intervals.add(at(0), at(5));
+        intervals.add(at(10), at(15));
+        intervals.add(at(20), at(25));
+
+        intervals.removeEndedBefore(at(15));
+        assertEquals(1, intervals.size());
+        assertFalse(intervals.overlaps(at(0), at(16)));
+        assertTrue(intervals.overlaps(at(16), at(21)));
+    }
+
+    @Test
+    void randomizedComparisonWithBruteForceTest() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            ApprovedIntervals intervals = new ApprovedIntervals();
+            List<LocalDateTime[]> approved = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                LocalDateTime[] interval = randomInterval(random);
+                intervals.add(interval[0], interval[1]);
+                approved.add(interval);
+
+                for (int q = 0; q < 20; q++) {
+                    LocalDateTime[] query = randomInterval(random);
+                    assertEquals(bruteForce(approved, query[0], query[1]), intervals.overlaps(query[0], query[1]));
+                }
+            }
+        }
+    }
+
+    private LocalDateTime[] randomInterval(Random random) {
+        int start = random.nextInt(200);
+        return new LocalDateTime[]{at(start), at(start + 1 + random.nextInt(20))};
+    }
+
+    private boolean bruteForce(List<LocalDateTime[]> approved, LocalDateTime start, LocalDateTime end) {
+        for (LocalDateTime[] interval : approved) {
+            if (start.isBefore(interval[1]) && end.isAfter(interval[0])) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
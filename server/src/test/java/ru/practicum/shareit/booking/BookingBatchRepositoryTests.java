@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingBatchRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// отдельный контекст и база: DDL ограничения в H2 фиксирует транзакцию и не должен попасть в другие тесты
+@DataJpaTest
+@AutoConfigureTestDatabase
+@Import(BookingBatchRepository.class)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingBatchRepositoryTests {
+    private final BookingBatchRepository batchRepository;
+    private final TestEntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime start;
+    private Item item;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        // заменяет ограничение EXCLUDE из PostgreSQL: бронирования после 2100 года подтвердить нельзя
+        jdbcTemplate.execute("ALTER TABLE bookings DROP CONSTRAINT IF EXISTS ck_bookings_test_approval");
+        jdbcTemplate.execute("ALTER TABLE bookings ADD CONSTRAINT ck_bookings_test_approval " +
+                "CHECK (status <> 'APPROVED' OR end_date < TIMESTAMP '2100-01-01 00:00:00')");
+        start = LocalDateTime.now().plusDays(1);
+        User owner = entityManager.persist(new User("Owner", "owner@mail.com"));
+        booker = entityManager.persist(new User("Booker", "booker@mail.com"));
+        item = entityManager.persist(new Item(null, "Drill", "description", true, owner, null));
+    }
+
+    private Booking createBooking(LocalDateTime end) {
+        return entityManager.persist(new Booking(null, start, end, item, booker, StatusOfBooking.WAITING));
+    }
+
+    private String status(Booking booking) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, booking.getId());
+    }
+
+    @Test
+    void updateStatusTest() {
+        Booking first = createBooking(start.plusDays(1));
+        Booking second = createBooking(start.plusDays(2));
+        entityManager.flush();
+
+        assertEquals(Set.of(), batchRepository.updateStatus(List.of(first, second), StatusOfBooking.APPROVED));
+        assertEquals("APPROVED", status(first));
+        assertEquals("APPROVED", status(second));
+    }
+
+    @Test
+    void violatingBookingIsReportedAndOthersAreUpdatedTest() {
+        Booking first = createBooking(start.plusDays(1));
+        Booking violating = createBooking(LocalDateTime.of(2100, 1, 2, 0, 0));
+        Booking last = createBooking(start.plusDays(2));
+        entityManager.flush();
+
+        Set<Long> violatingIds = batchRepository.updateStatus(List.of(first, violating, last),
+                StatusOfBooking.APPROVED);
+
+        assertEquals(Set.of(violating.getId()), violatingIds);
+        assertEquals("APPROVED", status(first));
+        assertEquals("WAITING", status(violating));
+        assertEquals("APPROVED", status(last));
+    }
+}
@@ -0,0 +1,253 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
+import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.AlreadyBookedException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTests {
+    private static final int THREADS = 8;
+
+    private final BookingService bookingService;
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
+    private final UserService userService;
+
+    @AfterEach
+    void clean() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private static void runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Callable<Void> task : tasks) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                return task.call();
+            }));
+        }
+        ready.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void deletedBookerFreesApprovedPeriodTest() {
+        User owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        User booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        User nextBooker = userRepository.save(new User("Next", "next@mail.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        CreateBookingDto period = new CreateBookingDto(start, start.plusDays(1), item.getId());
+        Booking booking = bookingService.create(period, booker.getId());
+        bookingService.changeStatus(booking.getId(), owner.getId(), true);
+
+        userService.deleteById(booker.getId());
+
+        assertEquals(StatusOfBooking.WAITING, bookingService.create(period, nextBooker.getId()).getStatus());
+    }
+
+    @Test
+    void concurrentApproveOfOverlappingBookingsTest() throws Exception {
+        User owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        User booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingRepository.save(new Booking(null, start.plusHours(i), start.plusHours(i + 24),
+                    item, booker, StatusOfBooking.WAITING)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingService.changeStatus(bookingId, owner.getId(), true);
+                    approved.incrementAndGet();
+                } catch (AlreadyBookedException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, approved.get());
+        assertEquals(THREADS - 1, rejected.get());
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == StatusOfBooking.APPROVED)
+                .count());
+    }
+
+    @Test
+    void concurrentApproveOfDisjointBookingsLosesNothingTest() throws Exception {
+        User owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        User booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<Callable<Void>> approvals = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Long bookingId = bookingRepository.save(new Booking(null, start.plusDays(2L * i),
+                    start.plusDays(2L * i + 1), item, booker, StatusOfBooking.WAITING)).getId();
+            approvals.add(() -> {
+                bookingService.changeStatus(bookingId, owner.getId(), true);
+                return null;
+            });
+        }
+
+        // подтверждения одной вещи конфликтуют по ее версии и повторяются, а не теряются
+        runConcurrently(approvals);
+
+        assertEquals(THREADS, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == StatusOfBooking.APPROVED)
+                .count());
+    }
+
+    @Test
+    void batchApproveTest() {
+        User owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        User booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = bookingRepository.save(new Booking(null, start, start.plusDays(2), item, booker,
+                StatusOfBooking.WAITING));
+        Booking second = bookingRepository.save(new Booking(null, start.plusDays(1), start.plusDays(3), item, booker,
+                StatusOfBooking.WAITING));
+        Booking third = bookingRepository.save(new Booking(null, start.plusDays(1), start.plusDays(3), item, booker,
+                StatusOfBooking.WAITING));
+
+        List<BookingDecisionResultDto> results = bookingService.changeStatuses(List.of(
+                new BookingDecisionDto(first.getId(), true),
+                new BookingDecisionDto(second.getId(), true),
+                new BookingDecisionDto(third.getId(), false)), owner.getId());
+
+        // второе подтверждение пересекается с первым из той же пачки
+        assertEquals(List.of(
+                new BookingDecisionResultDto(first.getId(), StatusOfBooking.APPROVED, null),
+                new BookingDecisionResultDto(second.getId(), null, "Вещь уже забронирована на выбранный период"),
+                new BookingDecisionResultDto(third.getId(), StatusOfBooking.REJECTED, null)), results);
+        Booking approved = bookingRepository.findById(first.getId()).orElseThrow();
+        assertEquals(StatusOfBooking.APPROVED, approved.getStatus());
+        assertEquals(first.getVersion() + 1, approved.getVersion());
+        assertEquals(StatusOfBooking.WAITING, bookingRepository.findById(second.getId()).orElseThrow().getStatus());
+        assertEquals(StatusOfBooking.REJECTED, bookingRepository.findById(third.getId()).orElseThrow().getStatus());
+        assertEquals(item.getVersion() + 1, itemRepository.findById(item.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void concurrentBatchAndSingleApprovalsDoNotOverlapTest() throws Exception {
+        User owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        User booker = userRepository.save(new User("Booker", "booker@mail.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDecisionDto> batch = new ArrayList<>();
+        List<Callable<Void>> approvals = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            LocalDateTime from = start.plusDays(2L * i);
+            batch.add(new BookingDecisionDto(bookingRepository.save(new Booking(null, from, from.plusDays(1), item,
+                    booker, StatusOfBooking.WAITING)).getId(), true));
+            Long bookingId = bookingRepository.save(new Booking(null, from.plusHours(12), from.plusHours(36), item,
+                    booker, StatusOfBooking.WAITING)).getId();
+            approvals.add(() -> {
+                try {
+                    bookingService.changeStatus(bookingId, owner.getId(), true);
+                } catch (AlreadyBookedException e) {
+                    // пересечение с подтвержденным пачкой бронированием
+                }
+                return null;
+            });
+        }
+        approvals.add(() -> {
+            bookingService.changeStatuses(batch, owner.getId());
+            return null;
+        });
+
+        runConcurrently(approvals);
+
+        List<Booking> approved = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == StatusOfBooking.APPROVED)
+                .sorted(Comparator.comparing(Booking::getStart))
+                .collect(Collectors.toList());
+        assertTrue(approved.size() >= THREADS);
+        for (int i = 1; i < approved.size(); i++) {
+            assertTrue(!approved.get(i).getStart().isBefore(approved.get(i - 1).getEnd()));
+        }
+    }
+
+    @Test
+    void concurrentItemUpdatesKeepBothChangesTest() throws Exception {
+        User owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        Item item = itemRepository.save(new Item(null, "Drill", "description", true, owner, null));
+
+        runConcurrently(List.of(() -> {
+            itemService.updateItem(item.getId(), new ItemDto(null, "Power drill", null, null, null), owner.getId());
+            return null;
+        }, () -> {
+            itemService.updateItem(item.getId(), new ItemDto(null, null, "Cordless", null, null), owner.getId());
+            return null;
+        }, () -> {
+            itemService.updateItem(item.getId(), new ItemDto(null, null, null, false, null), owner.getId());
+            return null;
+        }));
+
+        Item updated = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals("Power drill", updated.getName());
+        assertEquals("Cordless", updated.getDescription());
+        assertEquals(false, updated.getAvailable());
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.exceptions.WrongParametersException;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BookingCursorTests {
+
+    @Test
+    void encodeDecodeTest() {
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15), 42L);
+
+        assertEquals(cursor, BookingCursor.decode(cursor.encode()));
+        assertEquals(BookingCursor.first(), BookingCursor.decode(""));
+        assertEquals(BookingCursor.first(), BookingCursor.decode(BookingCursor.first().encode()));
+    }
+
+    @Test
+    void decodeInvalidTest() {
+        Throwable thrown = catchThrowable(() -> BookingCursor.decode("not a cursor"));
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        assertEquals("Передан некорректный курсор", thrown.getMessage());
+    }
+}
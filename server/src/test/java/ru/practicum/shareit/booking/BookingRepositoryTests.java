@@ -0,0 +1,268 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingOwnerBackfill;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.OptimisticLockException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingRepositoryTests {
+    private final BookingRepository bookingRepository;
+    private final TestEntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private LocalDateTime now;
+    private User owner;
+    private User booker;
+    private Statistics statistics;
+
+    @BeforeEach
+    void init() {
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        owner = entityManager.persist(new User("Owner", "owner@mail.com"));
+        booker = entityManager.persist(new User("Booker", "booker@mail.com"));
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Item createItem(String name) {
+        return entityManager.persist(new Item(null, name, "description", true, owner, null));
+    }
+
+    private Booking createBooking(Item item, LocalDateTime start, LocalDateTime end, StatusOfBooking status) {
+        return entityManager.persist(new Booking(null, start, end, item, booker, status));
+    }
+
+    private BookingDto toDto(Booking booking) {
+        return new BookingDto(booking.getId(), booking.getStart(), booking.getEnd(),
+                booking.getBooker().getId(), booking.getItem().getId());
+    }
+
+    @Test
+    void findNextAndLastBookingsTest() {
+        Item drill = createItem("Drill");
+        Item saw = createItem("Saw");
+        Item ladder = createItem("Ladder");
+        Booking drillLast = createBooking(drill, now.minusDays(5), now.minusDays(4), StatusOfBooking.APPROVED);
+        createBooking(drill, now.minusDays(9), now.minusDays(8), StatusOfBooking.APPROVED);
+        createBooking(drill, now.minusDays(2), now.minusDays(1), StatusOfBooking.REJECTED);
+        Booking drillNext = createBooking(drill, now.plusDays(1), now.plusDays(2), StatusOfBooking.APPROVED);
+        createBooking(drill, now.plusDays(3), now.plusDays(4), StatusOfBooking.APPROVED);
+        createBooking(drill, now.plusHours(1), now.plusHours(2), StatusOfBooking.WAITING);
+        Booking sawNext = createBooking(saw, now.plusDays(7), now.plusDays(8), StatusOfBooking.APPROVED);
+        createBooking(ladder, now.plusDays(1), now.plusDays(2), StatusOfBooking.CANCELED);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Long> itemIds = List.of(drill.getId(), saw.getId(), ladder.getId());
+        List<BookingDto> next = bookingRepository.findNextBookings(itemIds, StatusOfBooking.APPROVED, now);
+        List<BookingDto> last = bookingRepository.findLastBookings(itemIds, StatusOfBooking.APPROVED, now);
+
+        assertEquals(List.of(toDto(drillNext), toDto(sawNext)), next);
+        assertEquals(List.of(toDto(drillLast)), last);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void findNextAndLastBookingWithGrowingHistoryTest() {
+        for (int history : List.of(10, 500)) {
+            Item item = createItem("Item" + history);
+            for (int i = 1; i <= history; i++) {
+                createBooking(item, now.minusDays(2L * i + 1), now.minusDays(2L * i), StatusOfBooking.APPROVED);
+                createBooking(item, now.plusDays(2L * i), now.plusDays(2L * i + 1), StatusOfBooking.APPROVED);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            statistics.clear();
+
+            List<BookingDto> next = bookingRepository.findNextBooking(item.getId(), StatusOfBooking.APPROVED, now,
+                    PageRequest.of(0, 1));
+            List<BookingDto> last = bookingRepository.findLastBooking(item.getId(), StatusOfBooking.APPROVED, now,
+                    PageRequest.of(0, 1));
+
+            assertEquals(1, next.size());
+            assertEquals(now.plusDays(2), next.get(0).getStart());
+            assertEquals(1, last.size());
+            assertEquals(now.minusDays(2), last.get(0).getEnd());
+            assertEquals(2, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+        }
+    }
+
+    @Test
+    void existsOverlappingTest() {
+        Item item = createItem("Drill");
+        createBooking(item, now.plusDays(2), now.plusDays(4), StatusOfBooking.APPROVED);
+        createBooking(item, now.plusDays(6), now.plusDays(8), StatusOfBooking.REJECTED);
+
+        assertTrue(bookingRepository.existsOverlapping(item.getId(), StatusOfBooking.APPROVED,
+                now.plusDays(1), now.plusDays(5)));
+        assertTrue(bookingRepository.existsOverlapping(item.getId(), StatusOfBooking.APPROVED,
+                now.plusDays(3), now.plusHours(80)));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(), StatusOfBooking.APPROVED,
+                now.plusDays(4), now.plusDays(7)));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(), StatusOfBooking.APPROVED,
+                now, now.plusDays(2)));
+    }
+
+    @Test
+    void findBookerPageWithCursorTest() {
+        Item item = createItem("Drill");
+        List<Booking> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // пары бронирований с одинаковым окончанием проверяют разрешение ничьих по id
+            LocalDateTime end = now.minusDays(i / 2);
+            expected.add(createBooking(item, end.minusHours(5), end, StatusOfBooking.APPROVED));
+        }
+        expected.sort(Comparator.comparing(Booking::getEnd).thenComparing(Booking::getId).reversed());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Long> walked = new ArrayList<>();
+        BookingCursor cursor = BookingCursor.first();
+        Slice<Booking> page;
+        int pages = 0;
+        do {
+            page = bookingRepository.findBookerPage(booker.getId(), List.of(StatusOfBooking.values()),
+                    BookingCursor.MIN_DATE, BookingCursor.MAX_DATE, BookingCursor.MIN_DATE, BookingCursor.MAX_DATE,
+                    cursor.getEnd(), cursor.getId(), PageRequest.of(0, 3));
+            page.getContent().forEach(booking -> walked.add(booking.getId()));
+            cursor = BookingCursor.after(page.getContent().get(page.getNumberOfElements() - 1));
+            pages++;
+        } while (page.hasNext());
+
+        assertEquals(expected.stream().map(Booking::getId).collect(Collectors.toList()), walked);
+        assertEquals(3, pages);
+        assertEquals(pages, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    void findOwnerPageByStateTest() {
+        Item item = createItem("Drill");
+        Booking past = createBooking(item, now.minusDays(3), now.minusDays(2), StatusOfBooking.APPROVED);
+        Booking current = createBooking(item, now.minusDays(1), now.plusDays(1), StatusOfBooking.APPROVED);
+        Booking waiting = createBooking(item, now.plusDays(2), now.plusDays(3), StatusOfBooking.WAITING);
+        BookingCursor cursor = BookingCursor.first();
+
+        assertEquals(List.of(past), bookingRepository.findOwnerPage(owner.getId(), List.of(StatusOfBooking.values()),
+                BookingCursor.MIN_DATE, BookingCursor.MAX_DATE, BookingCursor.MIN_DATE, now,
+                cursor.getEnd(), cursor.getId(), PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(current), bookingRepository.findOwnerPage(owner.getId(), List.of(StatusOfBooking.values()),
+                BookingCursor.MIN_DATE, now, now, BookingCursor.MAX_DATE,
+                cursor.getEnd(), cursor.getId(), PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(waiting), bookingRepository.findOwnerPage(owner.getId(), List.of(StatusOfBooking.WAITING),
+                BookingCursor.MIN_DATE, BookingCursor.MAX_DATE, BookingCursor.MIN_DATE, BookingCursor.MAX_DATE,
+                cursor.getEnd(), cursor.getId(), PageRequest.of(0, 10)).getContent());
+        assertEquals(List.of(), bookingRepository.findOwnerPage(booker.getId(), List.of(StatusOfBooking.values()),
+                BookingCursor.MIN_DATE, BookingCursor.MAX_DATE, BookingCursor.MIN_DATE, BookingCursor.MAX_DATE,
+                cursor.getEnd(), cursor.getId(), PageRequest.of(0, 10)).getContent());
+    }
+
+    @Test
+    void ownerCopyFollowsItemOwnerTest() {
+        Item drill = createItem("Drill");
+        Booking booking = createBooking(drill, now.plusDays(1), now.plusDays(2), StatusOfBooking.WAITING);
+        entityManager.flush();
+        String ownerCopy = "SELECT item_owner_id FROM bookings WHERE id = ?";
+        assertEquals(owner.getId(), jdbcTemplate.queryForObject(ownerCopy, Long.class, booking.getId()));
+
+        jdbcTemplate.update("UPDATE items SET owner_id = ? WHERE id = ?", booker.getId(), drill.getId());
+        assertEquals(booker.getId(), jdbcTemplate.queryForObject(ownerCopy, Long.class, booking.getId()));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "UPDATE bookings SET item_owner_id = ? WHERE id = ?", owner.getId(), booking.getId()));
+    }
+
+    @Test
+    void statusChangeDoesNotOverwriteOwnerCopyTest() {
+        Item drill = createItem("Drill");
+        Booking booking = createBooking(drill, now.plusDays(1), now.plusDays(2), StatusOfBooking.WAITING);
+        entityManager.flush();
+        entityManager.clear();
+        Booking loaded = entityManager.find(Booking.class, booking.getId());
+        User newOwner = entityManager.persistAndFlush(new User("New owner", "new@mail.com"));
+        jdbcTemplate.update("UPDATE items SET owner_id = ? WHERE id = ?", newOwner.getId(), drill.getId());
+
+        loaded.setStatus(StatusOfBooking.APPROVED);
+        entityManager.flush();
+
+        assertEquals(newOwner.getId(), jdbcTemplate.queryForObject(
+                "SELECT item_owner_id FROM bookings WHERE id = ?", Long.class, booking.getId()));
+    }
+
+    @Test
+    void backfillConflictsWithBookingLoadedBeforeItTest() {
+        Item drill = createItem("Drill");
+        Booking booking = createBooking(drill, now.plusDays(1), now.plusDays(2), StatusOfBooking.WAITING);
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE bookings SET item_owner_id = NULL WHERE id = ?", booking.getId());
+        entityManager.clear();
+        Booking loaded = entityManager.find(Booking.class, booking.getId());
+
+        new BookingOwnerBackfill(jdbcTemplate, Runnable::run, true, true, 1).run();
+        loaded.setStatus(StatusOfBooking.APPROVED);
+
+        assertThrows(OptimisticLockException.class, entityManager::flush);
+    }
+
+    @Test
+    void denormalizedOwnerPageTest() {
+        Item drill = createItem("Drill");
+        Item saw = createItem("Saw");
+        createBooking(drill, now.minusDays(3), now.minusDays(2), StatusOfBooking.APPROVED);
+        createBooking(saw, now.minusDays(1), now.plusDays(1), StatusOfBooking.WAITING);
+        createBooking(drill, now.plusDays(2), now.plusDays(3), StatusOfBooking.REJECTED);
+        entityManager.flush();
+        jdbcTemplate.update("UPDATE bookings SET item_owner_id = NULL WHERE item_id = ?", saw.getId());
+        entityManager.clear();
+
+        new BookingOwnerBackfill(jdbcTemplate, Runnable::run, true, true, 1).run();
+
+        BookingCursor cursor = BookingCursor.first();
+        List<StatusOfBooking> statuses = List.of(StatusOfBooking.values());
+        Slice<Booking> joined = bookingRepository.findOwnerPage(owner.getId(), statuses,
+                BookingCursor.MIN_DATE, BookingCursor.MAX_DATE, BookingCursor.MIN_DATE, BookingCursor.MAX_DATE,
+                cursor.getEnd(), cursor.getId(), PageRequest.of(0, 10));
+        Slice<Booking> denormalized = bookingRepository.findDenormalizedOwnerPage(owner.getId(), statuses,
+                BookingCursor.MIN_DATE, BookingCursor.MAX_DATE, BookingCursor.MIN_DATE, BookingCursor.MAX_DATE,
+                cursor.getEnd(), cursor.getId(), PageRequest.of(0, 10));
+
+        assertEquals(3, denormalized.getNumberOfElements());
+        assertEquals(joined.getContent(), denormalized.getContent());
+        assertTrue(denormalized.getContent().stream().allMatch(booking -> owner.getId().equals(booking.getOwnerId())));
+    }
+}
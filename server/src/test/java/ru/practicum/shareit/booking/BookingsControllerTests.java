@@ -7,12 +7,21 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.NdjsonWriter;
 import ru.practicum.shareit.booking.controller.ServiceBookingController;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.StatusOfBooking;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 
@@ -21,12 +30,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ServiceBookingController.class)
+@Import(NdjsonWriter.class)
 public class BookingsControllerTests {
     @Autowired
     private ObjectMapper mapper;
@@ -99,9 +114,43 @@ public class BookingsControllerTests {
         assertEquals(mapper.writeValueAsString(booking), result);
     }
 
+    @Test
+    void approveConflictTest() throws Exception {
+        when(bookingService.changeStatus(bookingId, userId, Boolean.TRUE))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, bookingId));
+
+        mvc.perform(patch("/bookings/{bookingId}", bookingId)
+                        .param("approved", String.valueOf(Boolean.TRUE))
+                        .header("X-Sharer-User-Id", userId)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Данные одновременно изменены другим запросом, повторите попытку")));
+    }
+
+    @Test
+    void approveAllTest() throws Exception {
+        List<BookingDecisionDto> decisions = List.of(new BookingDecisionDto(bookingId, true),
+                new BookingDecisionDto(2L, false));
+        List<BookingDecisionResultDto> results = List.of(
+                new BookingDecisionResultDto(bookingId, StatusOfBooking.APPROVED, null),
+                new BookingDecisionResultDto(2L, null, "Бронирования с данным id не существует"));
+        when(bookingService.changeStatuses(decisions, userId)).thenReturn(results);
+
+        mvc.perform(patch("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .content(mapper.writeValueAsString(decisions))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2)))
+                .andExpect(jsonPath("$[1].error", is("Бронирования с данным id не существует")));
+    }
+
     @Test
     void findTest() throws Exception {
-        when(bookingService.findById(bookingId, userId)).thenReturn(booking);
+        when(bookingService.findById(eq(bookingId), eq(userId), any())).thenReturn(booking);
 
         String result = mvc.perform(get("/bookings/{bookingId}", bookingId)
                         .header("X-Sharer-User-Id", userId)
@@ -114,7 +163,7 @@ public class BookingsControllerTests {
                 .getResponse()
                 .getContentAsString();
 
-        verify(bookingService, Mockito.times(1)).findById(bookingId, userId);
+        verify(bookingService, Mockito.times(1)).findById(eq(bookingId), eq(userId), any());
         assertEquals(result, mapper.writeValueAsString(booking));
     }
 
@@ -163,4 +212,46 @@ public class BookingsControllerTests {
         verify(bookingService, Mockito.times(1)).findAllByOwner(from, size, userId, State.ALL);
         assertEquals(result, mapper.writeValueAsString(bookings));
     }
+
+    @Test
+    void findAllByUserWithCursor() throws Exception {
+        List<Booking> bookings = List.of(booking);
+        String nextCursor = BookingCursor.after(booking).encode();
+        when(bookingService.findAllByUserAfter("", size, userId, State.ALL))
+                .thenReturn(new SliceImpl<>(bookings, PageRequest.of(0, size), true));
+
+        String result = mvc.perform(get("/bookings")
+                        .param("size", "1")
+                        .param("cursor", "")
+                        .header("X-Sharer-User-Id", userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", nextCursor))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        verify(bookingService, Mockito.times(1)).findAllByUserAfter("", size, userId, State.ALL);
+        assertEquals(result, mapper.writeValueAsString(bookings));
+    }
+
+    @Test
+    void findAllByOwnerLastPageWithCursor() throws Exception {
+        List<Booking> bookings = List.of(booking);
+        String cursor = BookingCursor.first().encode();
+        when(bookingService.findAllByOwnerAfter(cursor, size, userId, State.ALL))
+                .thenReturn(new SliceImpl<>(bookings, PageRequest.of(0, size), false));
+
+        mvc.perform(get("/bookings/owner")
+                        .param("size", "1")
+                        .param("cursor", cursor)
+                        .header("X-Sharer-User-Id", userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(bookingService, Mockito.times(1)).findAllByOwnerAfter(cursor, size, userId, State.ALL);
+    }
 }
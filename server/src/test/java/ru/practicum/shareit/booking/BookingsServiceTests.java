@@ -8,16 +8,26 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.ResponseCacheInvalidation;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
+import ru.practicum.shareit.booking.dto.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.StatusOfBooking;
+import ru.practicum.shareit.booking.repository.BookingBatchRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingAvailability;
+import ru.practicum.shareit.booking.service.BookingOwnerBackfill;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exceptions.AlreadyBookedException;
 import ru.practicum.shareit.exceptions.AuntificationException;
@@ -30,13 +40,20 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,6 +76,18 @@ public class BookingsServiceTests {
     @Mock
     private BookingMapper bookingMapper;
 
+    @Mock
+    private BookingAvailability bookingAvailability;
+
+    @Mock
+    private BookingOwnerBackfill ownerBackfill;
+
+    @Mock
+    private ResponseCacheInvalidation cacheInvalidation;
+
+    @Mock
+    private BookingBatchRepository batchRepository;
+
     private Long userId;
     private Long ownerId;
     private Long itemId;
@@ -140,6 +169,36 @@ public class BookingsServiceTests {
         assertEquals(bookingService.findAllByUser(from, size, userId, State.REJECTED), rejectedBookings);
     }
 
+    @Test
+    public void findAllByUserAfterCursorTest() {
+        BookingCursor cursor = new BookingCursor(end, bookingId);
+        Slice<Booking> slice = new SliceImpl<>(List.of(booking));
+        when(userService.userExistById(any(Long.class))).thenReturn(true);
+        when(bookingRepository.findBookerPage(eq(userId), eq(List.of(StatusOfBooking.WAITING)),
+                eq(BookingCursor.MIN_DATE), eq(BookingCursor.MAX_DATE), eq(BookingCursor.MIN_DATE),
+                eq(BookingCursor.MAX_DATE), eq(end), eq(bookingId), eq(PageRequest.of(0, size)))).thenReturn(slice);
+        when(bookingRepository.findOwnerPage(eq(userId), eq(List.of(StatusOfBooking.values())),
+                eq(BookingCursor.MIN_DATE), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(BookingCursor.MAX_DATE), eq(BookingCursor.MAX_DATE), eq(Long.MAX_VALUE),
+                eq(PageRequest.of(0, size)))).thenReturn(slice);
+
+        assertEquals(slice, bookingService.findAllByUserAfter(cursor.encode(), size, userId, State.WAITING));
+        assertEquals(slice, bookingService.findAllByOwnerAfter("", size, userId, State.CURRENT));
+    }
+
+    @Test
+    public void findAllByOwnerDenormalizedTest() {
+        when(userService.userExistById(any(Long.class))).thenReturn(true);
+        when(ownerBackfill.isCompleted()).thenReturn(true);
+        when(bookingRepository.findDenormalizedOwnerPage(eq(userId), eq(List.of(StatusOfBooking.REJECTED)),
+                eq(BookingCursor.MIN_DATE), eq(BookingCursor.MAX_DATE), eq(BookingCursor.MIN_DATE),
+                eq(BookingCursor.MAX_DATE), eq(BookingCursor.MAX_DATE), eq(Long.MAX_VALUE),
+                eq(PageRequest.of(from / size, size)))).thenReturn(new SliceImpl<>(List.of(booking)));
+
+        assertEquals(List.of(booking), bookingService.findAllByOwner(from, size, userId, State.REJECTED));
+        verify(bookingRepository, never()).findOwnerPage(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+
     @Test
     public void findAllByUserErrorsTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(false);
@@ -175,34 +234,26 @@ public class BookingsServiceTests {
 
         Pageable pageable = PageRequest.of(from / size, size);
 
-        Page<Booking> page = new PageImpl<>(allBookings, pageable, 1);
-        when(bookingRepository.findAllByItemOwnerIdOrderByEndDesc(userId, pageable)).thenReturn(page);
-        assertEquals(bookingService.findAllByOwner(from, size, userId, State.ALL), allBookings);
-
-        page = new PageImpl<>(currentBookings, pageable, 1);
-        when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByEndDesc(any(Long.class),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
-        assertEquals(bookingService.findAllByOwner(from, size, userId, State.CURRENT), currentBookings);
-
-        page = new PageImpl<>(pastBookings, pageable, 1);
-        when(bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByEndDesc(
-                any(Long.class), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
-        assertEquals(bookingService.findAllByOwner(from, size, userId, State.PAST), pastBookings);
-
-        page = new PageImpl<>(futureBookings, pageable, 1);
-        when(bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByEndDesc(
-                any(Long.class), any(LocalDateTime.class), any(Pageable.class))).thenReturn(page);
-        assertEquals(bookingService.findAllByOwner(from, size, userId, State.FUTURE), futureBookings);
-
-        page = new PageImpl<>(waitingBookings, pageable, 1);
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByEndDesc(any(Long.class),
-                any(StatusOfBooking.class), any(Pageable.class))).thenReturn(page);
-        assertEquals(bookingService.findAllByOwner(from, size, userId, State.WAITING), waitingBookings);
-
-        page = new PageImpl<>(rejectedBookings, pageable, 1);
-        when(bookingRepository.findAllByItemOwnerIdAndStatusOrderByEndDesc(any(Long.class),
-                any(StatusOfBooking.class), any(Pageable.class))).thenReturn(page);
-        assertEquals(bookingService.findAllByOwner(from, size, userId, State.REJECTED), rejectedBookings);
+        // до и после заполнения item_owner_id страницы по смещению режутся тем же запросом, что и по курсору
+        when(bookingRepository.findOwnerPage(eq(userId), eq(List.of(StatusOfBooking.values())), any(), any(), any(),
+                any(), eq(BookingCursor.MAX_DATE), eq(Long.MAX_VALUE), eq(pageable)))
+                .thenReturn(new SliceImpl<>(allBookings), new SliceImpl<>(currentBookings),
+                        new SliceImpl<>(pastBookings), new SliceImpl<>(futureBookings));
+        when(bookingRepository.findOwnerPage(eq(userId), eq(List.of(StatusOfBooking.WAITING)), eq(BookingCursor.MIN_DATE),
+                eq(BookingCursor.MAX_DATE), eq(BookingCursor.MIN_DATE), eq(BookingCursor.MAX_DATE),
+                eq(BookingCursor.MAX_DATE), eq(Long.MAX_VALUE), eq(pageable))).thenReturn(new SliceImpl<>(waitingBookings));
+        when(bookingRepository.findOwnerPage(eq(userId), eq(List.of(StatusOfBooking.REJECTED)), eq(BookingCursor.MIN_DATE),
+                eq(BookingCursor.MAX_DATE), eq(BookingCursor.MIN_DATE), eq(BookingCursor.MAX_DATE),
+                eq(BookingCursor.MAX_DATE), eq(Long.MAX_VALUE), eq(pageable))).thenReturn(new SliceImpl<>(rejectedBookings));
+
+        assertEquals(allBookings, bookingService.findAllByOwner(from, size, userId, State.ALL));
+        assertEquals(currentBookings, bookingService.findAllByOwner(from, size, userId, State.CURRENT));
+        assertEquals(pastBookings, bookingService.findAllByOwner(from, size, userId, State.PAST));
+        assertEquals(futureBookings, bookingService.findAllByOwner(from, size, userId, State.FUTURE));
+        assertEquals(waitingBookings, bookingService.findAllByOwner(from, size, userId, State.WAITING));
+        assertEquals(rejectedBookings, bookingService.findAllByOwner(from, size, userId, State.REJECTED));
+        verify(bookingRepository, never()).findDenormalizedOwnerPage(any(), any(), any(), any(), any(), any(), any(),
+                any(), any());
     }
 
     @Test
@@ -257,10 +308,9 @@ public class BookingsServiceTests {
     public void saveTest() {
         when(bookingRepository.save(booking)).thenReturn(booking);
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemService.itemExistById(any(Long.class))).thenReturn(true);
         when(itemService.findById(itemId)).thenReturn(item);
-        when(userService.findById(userId)).thenReturn(user);
-        when(bookingMapper.toBookingCreation(bookingDto)).thenReturn(booking);
+        when(userService.findById(ownerId)).thenReturn(owner);
+        when(bookingMapper.toBookingCreation(bookingDto, item)).thenReturn(booking);
 
         assertEquals(bookingService.create(bookingDto, ownerId), booking);
     }
@@ -276,17 +326,15 @@ public class BookingsServiceTests {
         assertEquals("Пользователя, от лица которого создается бронирование, не существует", thrown.getMessage());
 
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemService.itemExistById(any(Long.class))).thenReturn(false);
+        when(itemService.findById(itemId)).thenThrow(new NotFoundAnythingException("Вещи с данным id не существует"));
         thrown = catchThrowable(() -> {
             bookingService.create(bookingDto, ownerId);
         });
         assertThat(thrown).isInstanceOf(NotFoundAnythingException.class);
         assertThat(thrown.getMessage()).isNotBlank();
-        assertEquals("Вещи, на которую создается бронирование, не существует", thrown.getMessage());
+        assertEquals("Вещи с данным id не существует", thrown.getMessage());
 
-        when(itemService.itemExistById(any(Long.class))).thenReturn(true);
-        when(itemService.findById(itemId)).thenReturn(item);
-        when(userService.findById(userId)).thenReturn(user);
+        doReturn(item).when(itemService).findById(itemId);
         thrown = catchThrowable(() -> {
             bookingService.create(bookingDto, userId);
         });
@@ -304,13 +352,25 @@ public class BookingsServiceTests {
         assertEquals("Эта вещь уже забронирована!", thrown.getMessage());
     }
 
+    @Test
+    public void saveIntersectedTest() {
+        when(userService.userExistById(any(Long.class))).thenReturn(true);
+        when(itemService.findById(itemId)).thenReturn(item);
+        when(bookingAvailability.overlaps(itemId, bookingDto.getStart(), bookingDto.getEnd())).thenReturn(true);
+
+        Throwable thrown = catchThrowable(() -> {
+            bookingService.create(bookingDto, ownerId);
+        });
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        assertEquals("Введенное вами бронирование пересекается с уже существующими", thrown.getMessage());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     public void saveWrongStartEndTest() {
         bookingDto = new CreateBookingDto(end, start, itemId);
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemService.itemExistById(any(Long.class))).thenReturn(true);
         when(itemService.findById(itemId)).thenReturn(item);
-        when(userService.findById(userId)).thenReturn(user);
 
         Throwable thrown = catchThrowable(() -> {
             bookingService.create(bookingDto, ownerId);
@@ -326,12 +386,28 @@ public class BookingsServiceTests {
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         booking = new Booking(bookingId, start, end, item, user, StatusOfBooking.REJECTED);
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
         assertEquals(bookingService.changeStatus(bookingId, userId, false), booking);
 
         booking = new Booking(bookingId, start, end, item, user, StatusOfBooking.APPROVED);
-        when(bookingRepository.save(booking)).thenReturn(booking);
+        when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
         assertEquals(bookingService.changeStatus(bookingId, userId, true), booking);
+        verify(bookingAvailability).approved(any(Booking.class));
+        verify(cacheInvalidation, times(2)).itemChanged(item);
+    }
+
+    @Test
+    public void changeStatusConflictTest() {
+        booking = new Booking(bookingId, start, end, item, user, StatusOfBooking.WAITING);
+        when(userService.userExistById(any(Long.class))).thenReturn(true);
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
+        when(bookingRepository.saveAndFlush(booking)).thenThrow(new DataIntegrityViolationException("exclusion"));
+
+        Throwable thrown = catchThrowable(() -> {
+            bookingService.changeStatus(bookingId, userId, true);
+        });
+        assertThat(thrown).isInstanceOf(AlreadyBookedException.class);
+        assertEquals("Вещь уже забронирована на выбранный период", thrown.getMessage());
     }
 
     @Test
@@ -374,4 +450,85 @@ public class BookingsServiceTests {
         assertThat(thrown.getMessage()).isNotBlank();
         assertEquals("У вас нет доступа к изменению статуса этого бронирования", thrown.getMessage());
     }
+
+    @Test
+    public void changeStatusesTest() {
+        Item foreignItem = new Item(2L, "foreign", "descdesc", true, owner, null);
+        Booking approved = new Booking(2L, start, end, item, owner, StatusOfBooking.APPROVED);
+        Booking overlapping = new Booking(3L, start, end, item, owner, StatusOfBooking.WAITING);
+        Booking rejected = new Booking(4L, start, end, item, owner, StatusOfBooking.WAITING);
+        Booking foreign = new Booking(5L, start, end, foreignItem, user, StatusOfBooking.WAITING);
+        when(userService.userExistById(userId)).thenReturn(true);
+        when(bookingRepository.findAllWithItemByIdIn(Set.of(1L, 2L, 3L, 4L, 5L, 6L)))
+                .thenReturn(List.of(booking, approved, overlapping, rejected, foreign));
+        when(bookingAvailability.findOverlapping(List.of(booking, overlapping))).thenReturn(Set.of(3L));
+
+        List<BookingDecisionResultDto> results = bookingService.changeStatuses(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, true),
+                new BookingDecisionDto(3L, true),
+                new BookingDecisionDto(4L, false),
+                new BookingDecisionDto(5L, true),
+                new BookingDecisionDto(6L, true),
+                new BookingDecisionDto(1L, false)), userId);
+
+        assertEquals(List.of(
+                new BookingDecisionResultDto(1L, StatusOfBooking.APPROVED, null),
+                new BookingDecisionResultDto(2L, null, "Эта бронь уже подтверждена!"),
+                new BookingDecisionResultDto(3L, null, "Вещь уже забронирована на выбранный период"),
+                new BookingDecisionResultDto(4L, StatusOfBooking.REJECTED, null),
+                new BookingDecisionResultDto(5L, null, "У вас нет доступа к изменению статуса этого бронирования"),
+                new BookingDecisionResultDto(6L, null, "Бронирования с данным id не существует"),
+                new BookingDecisionResultDto(1L, null, "Решение по этому бронированию уже передано")), results);
+        verify(batchRepository).updateStatus(List.of(booking), StatusOfBooking.APPROVED);
+        verify(batchRepository).updateStatus(List.of(rejected), StatusOfBooking.REJECTED);
+        verify(bookingAvailability).approved(booking);
+        verify(cacheInvalidation, times(1)).itemChanged(item);
+    }
+
+    @Test
+    public void changeStatusesConflictTest() {
+        Booking conflicting = new Booking(2L, start, end, item, owner, StatusOfBooking.WAITING);
+        Booking undecided = new Booking(3L, start, end, item, owner, StatusOfBooking.WAITING);
+        when(userService.userExistById(userId)).thenReturn(true);
+        when(bookingRepository.findAllWithItemByIdIn(Set.of(1L, 2L, 3L)))
+                .thenReturn(List.of(booking, conflicting, undecided));
+        when(batchRepository.updateStatus(any(), any())).thenAnswer(invocation ->
+                invocation.getArgument(1) == StatusOfBooking.APPROVED ? Set.of(2L) : Set.of());
+
+        List<BookingDecisionResultDto> results = bookingService.changeStatuses(List.of(
+                new BookingDecisionDto(1L, true),
+                new BookingDecisionDto(2L, true),
+                new BookingDecisionDto(3L, null)), userId);
+
+        assertEquals(List.of(
+                new BookingDecisionResultDto(1L, StatusOfBooking.APPROVED, null),
+                new BookingDecisionResultDto(2L, null, "Вещь уже забронирована на выбранный период"),
+                new BookingDecisionResultDto(3L, null, "Не указано, подтверждается ли бронирование")), results);
+        verify(bookingAvailability).approved(booking);
+        verify(bookingAvailability, never()).approved(conflicting);
+    }
+
+    @Test
+    public void changeStatusesErrorsTest() {
+        when(userService.userExistById(userId)).thenReturn(false);
+        Throwable thrown = catchThrowable(() -> {
+            bookingService.changeStatuses(List.of(new BookingDecisionDto(bookingId, true)), userId);
+        });
+        assertThat(thrown).isInstanceOf(NotFoundAnythingException.class);
+        assertEquals("Пользователя, от лица которого изменяется бронирование, не существует", thrown.getMessage());
+
+        when(userService.userExistById(userId)).thenReturn(true);
+        thrown = catchThrowable(() -> {
+            bookingService.changeStatuses(List.of(), userId);
+        });
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        assertEquals("Не передано ни одного решения по бронированиям", thrown.getMessage());
+
+        thrown = catchThrowable(() -> {
+            bookingService.changeStatuses(Arrays.asList(new BookingDecisionDto(bookingId, true), null), userId);
+        });
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        assertEquals("Решение по бронированию не может быть пустым", thrown.getMessage());
+    }
 }
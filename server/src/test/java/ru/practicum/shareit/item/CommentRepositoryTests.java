@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class CommentRepositoryTests {
+    private static final int COMMENTS = 200;
+
+    private final CommentRepository commentRepository;
+    private final TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        User author = entityManager.persist(new User("Author", "author@mail.com"));
+        item = entityManager.persist(new Item(null, "Drill", "Cordless", true, author, null));
+        for (int i = 0; i < COMMENTS; i++) {
+            entityManager.persist(new Comment("Comment " + i, item, author, LocalDateTime.now()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findViewsByItemIdInTest() {
+        statistics.clear();
+        List<CommentView> views = commentRepository.findViewsByItemIdIn(List.of(item.getId()));
+
+        assertEquals(COMMENTS, views.size());
+        assertEquals(item.getId(), views.get(0).getItemId());
+        assertEquals("Comment 0", views.get(0).getText());
+        assertEquals("Author", views.get(0).getAuthorName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        // проекция не попадает в контекст постоянства: ни отзывов, ни авторов, ни вещей
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
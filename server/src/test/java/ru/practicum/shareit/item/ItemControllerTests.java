@@ -7,8 +7,11 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.NdjsonWriter;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import ru.practicum.shareit.item.controller.ServiceItemController;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -22,16 +25,21 @@ import ru.practicum.shareit.user.model.User;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Predicate;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ServiceItemController.class)
+@Import(NdjsonWriter.class)
 public class ItemControllerTests {
     @Autowired
     private ObjectMapper mapper;
@@ -77,11 +85,11 @@ public class ItemControllerTests {
 
     @Test
     void findAllByUser() throws Exception {
-        when(itemService.findAllByUser(from, size, userId)).thenReturn(itemDtos);
+        when(itemService.findAllByUser(from, size, null, userId)).thenReturn(itemDtos);
 
         String result = mvc.perform(get("/items").param("from", "0").param("size", "1").header("X-Sharer-User-Id", userId).content(mapper.writeValueAsString(itemDtos)).characterEncoding(StandardCharsets.UTF_8).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
-        verify(itemService, Mockito.times(1)).findAllByUser(from, size, userId);
+        verify(itemService, Mockito.times(1)).findAllByUser(from, size, null, userId);
         assertEquals(result, mapper.writeValueAsString(itemDtos));
     }
 
@@ -97,14 +105,31 @@ public class ItemControllerTests {
 
     @Test
     void findById() throws Exception {
-        when(itemService.findDtoById(itemId, userId)).thenReturn(itemDto);
+        when(itemService.findDtoById(eq(itemId), eq(userId), any())).thenReturn(itemDto);
 
         String result = mvc.perform(get("/items/{itemId}", itemId).header("X-Sharer-User-Id", userId).content(mapper.writeValueAsString(itemDto)).characterEncoding(StandardCharsets.UTF_8).contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
 
-        verify(itemService, Mockito.times(1)).findDtoById(itemId, userId);
+        verify(itemService, Mockito.times(1)).findDtoById(eq(itemId), eq(userId), any());
         assertEquals(result, mapper.writeValueAsString(itemDto));
     }
 
+    @Test
+    void findByIdNotModified() throws Exception {
+        when(itemService.findDtoById(eq(itemId), eq(userId), any())).thenAnswer(invocation ->
+                invocation.<Predicate<String>>getArgument(2).test("abc") ? null : itemDto);
+
+        mvc.perform(get("/items/{itemId}", itemId).header("X-Sharer-User-Id", userId).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""));
+
+        String result = mvc.perform(get("/items/{itemId}", itemId).header("X-Sharer-User-Id", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc\"").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("", result);
+    }
+
     @Test
     void createItem() throws Exception {
         when(itemService.createItem(simpleItemDto, userId)).thenReturn(simpleItemDto);
@@ -9,6 +9,8 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
@@ -19,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ItemRepositoryTests {
     private final ItemRepository itemRepository;
+    private final UserRepository userRepository;
 
     @Test
     void findAllByTextTest() {
@@ -33,10 +36,36 @@ public class ItemRepositoryTests {
         Item item2 = new Item(itemId2, "hehehe", "pleaseHelp", true);
         Item item3 = new Item(itemId3, "Yan", "EasyPeasy", true);
         itemRepository.save(item);
-        itemRepository.save(item2);
-        itemRepository.save(item3);
-        List<Item> items = itemRepository.findAllByText(text, pageable);
+        item2 = itemRepository.save(item2);
+        item3 = itemRepository.save(item3);
+        List<Item> items = itemRepository.findAvailableByText(text, pageable);
 
         assertEquals(List.of(item2, item3), items);
     }
+
+    @Test
+    void findAvailableByTextRanksNameMatchesFirstTest() {
+        Item described = itemRepository.save(new Item(null, "Hammer", "Heavy DRILL bit set", true));
+        Item unavailable = itemRepository.save(new Item(null, "Drill", "Cordless", false));
+        Item named = itemRepository.save(new Item(null, "Power drill", "Cordless", true));
+
+        List<Item> items = itemRepository.findAvailableByText("drill", PageRequest.of(0, 10));
+
+        assertEquals(List.of(named, described), items);
+        assertEquals(List.of(named), itemRepository.findAvailableByText("drill", PageRequest.of(0, 1)));
+    }
+
+    @Test
+    void findAvailableByOwnerWithKeysetTest() {
+        User owner = userRepository.save(new User("Owner", "owner@mail.com"));
+        Item first = itemRepository.save(new Item(null, "Drill", "Cordless", true, owner, null));
+        itemRepository.save(new Item(null, "Saw", "Broken", false, owner, null));
+        Item third = itemRepository.save(new Item(null, "Ladder", "Tall", true, owner, null));
+        Item fourth = itemRepository.save(new Item(null, "Hammer", "Heavy", true, owner, null));
+
+        assertEquals(List.of(first, third),
+                itemRepository.findAllByOwnerIdAndAvailableTrueOrderById(owner.getId(), PageRequest.of(0, 2)));
+        assertEquals(List.of(fourth), itemRepository.findAllByOwnerIdAndAvailableTrueAndIdGreaterThanOrderById(
+                owner.getId(), third.getId(), PageRequest.of(0, 2)));
+    }
 }
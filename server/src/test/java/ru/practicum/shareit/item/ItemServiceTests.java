@@ -8,6 +8,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.EntityCacheEviction;
+import ru.practicum.shareit.EntityVersions;
+import ru.practicum.shareit.ResponseCacheInvalidation;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
@@ -16,6 +19,7 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.exceptions.WrongParametersException;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBookingsComments;
 import ru.practicum.shareit.item.model.Comment;
@@ -24,19 +28,25 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemMapper;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -63,6 +73,18 @@ public class ItemServiceTests {
     @Mock
     private CommentMapper commentMapper;
 
+    @Mock
+    private ItemSearchIndex searchIndex;
+
+    @Mock
+    private ResponseCacheInvalidation cacheInvalidation;
+
+    @Mock
+    private EntityVersions entityVersions;
+
+    @Mock
+    private EntityCacheEviction entityCacheEviction;
+
     @Mock
     private BookingMapper bookingMapper;
 
@@ -90,6 +112,8 @@ public class ItemServiceTests {
     private List<ItemDtoBookingsComments> itemDtos;
     private List<Booking> bookings;
     private List<Comment> comments;
+    private CommentView commentView;
+    private List<CommentView> commentViews;
     private Pageable pageable;
 
     @BeforeEach
@@ -125,6 +149,8 @@ public class ItemServiceTests {
         items = List.of(item);
         bookings = List.of(booking);
         comments = List.of(comment);
+        commentView = new CommentView(itemId, commentId, "comment text", userName, created);
+        commentViews = List.of(commentView);
         pageable = PageRequest.of(from / size, size);
     }
 
@@ -136,22 +162,37 @@ public class ItemServiceTests {
 
     @Test
     public void findAllByUserTest() {
-        when(itemRepository.findAllByOwnerIdOrderById(userId, pageable)).thenReturn(items);
+        when(itemRepository.findAllByOwnerIdAndAvailableTrueOrderById(userId, pageable)).thenReturn(items);
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(bookingRepository.findAllByItemIdAndStartAfterAndStatus(any(Long.class),
-                any(LocalDateTime.class), any(StatusOfBooking.class))).thenReturn(bookings);
-        when(commentRepository.findAllByItemId(any(Long.class))).thenReturn(comments);
+        when(bookingRepository.findNextBookings(eq(List.of(itemId)), eq(StatusOfBooking.APPROVED),
+                any(LocalDateTime.class))).thenReturn(List.of(shortBookingDto));
+        when(bookingRepository.findLastBookings(eq(List.of(itemId)), eq(StatusOfBooking.APPROVED),
+                any(LocalDateTime.class))).thenReturn(List.of());
+        when(commentRepository.findViewsByItemIdIn(List.of(itemId))).thenReturn(commentViews);
         when(itemMapper.toItemDtoBookingsComments(item)).thenReturn(itemDto);
-        when(commentMapper.toCommentDto(comment)).thenReturn(commentDto);
+        when(commentMapper.toCommentDto(commentView)).thenReturn(commentDto);
 
-        assertEquals(itemService.findAllByUser(from, size, userId), itemDtos);
+        assertEquals(itemService.findAllByUser(from, size, null, userId), itemDtos);
+        assertEquals(shortBookingDto, itemDto.getNextBooking());
+        assertEquals(null, itemDto.getLastBooking());
+        assertEquals(List.of(commentDto), itemDto.getComments());
+    }
+
+    @Test
+    public void findAllByUserAfterLastIdTest() {
+        when(userService.userExistById(any(Long.class))).thenReturn(true);
+        when(itemRepository.findAllByOwnerIdAndAvailableTrueAndIdGreaterThanOrderById(userId, 100L,
+                PageRequest.of(0, size))).thenReturn(List.of());
+
+        assertEquals(List.of(), itemService.findAllByUser(from + 5, size, 100L, userId));
+        verify(itemRepository, never()).findAllByOwnerIdAndAvailableTrueOrderById(any(), any());
     }
 
     @Test
     public void findAllByUserErrorTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(false);
         Throwable thrown = catchThrowable(() -> {
-            itemService.findAllByUser(from, size, userId);
+            itemService.findAllByUser(from, size, null, userId);
         });
         assertThat(thrown).isInstanceOf(NotFoundAnythingException.class);
         assertThat(thrown.getMessage()).isNotBlank();
@@ -161,16 +202,28 @@ public class ItemServiceTests {
     @Test
     public void findAllByTextTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(bookingRepository.findAllByItemIdAndStartAfterAndStatus(any(Long.class),
-                any(LocalDateTime.class), any(StatusOfBooking.class))).thenReturn(bookings);
-        when(bookingRepository.findAllByItemIdAndStartBeforeAndStatus(any(Long.class),
-                any(LocalDateTime.class), any(StatusOfBooking.class))).thenReturn(bookings);
-        when(commentRepository.findAllByItemId(any(Long.class))).thenReturn(comments);
+        when(commentRepository.findViewsByItemIdIn(List.of(itemId))).thenReturn(commentViews);
+        when(itemMapper.toItemDtoBookingsComments(item)).thenReturn(itemDto);
+        when(itemRepository.findAvailableByText(text, pageable)).thenReturn(items);
+        when(commentMapper.toCommentDto(commentView)).thenReturn(commentDto);
+
+        assertEquals(itemService.findAllByText(from, size, text, userId + 1), itemDtos);
+        verify(bookingRepository, never()).findNextBookings(any(), any(), any());
+    }
+
+    @Test
+    public void findAllByTextIndexedTest() {
+        when(userService.userExistById(any(Long.class))).thenReturn(true);
+        when(searchIndex.isEnabled()).thenReturn(true);
+        when(searchIndex.search(text, 0, size)).thenReturn(List.of(itemId, itemId + 1));
+        when(itemRepository.findAllById(List.of(itemId, itemId + 1))).thenReturn(items);
+        when(commentRepository.findViewsByItemIdIn(List.of(itemId))).thenReturn(commentViews);
         when(itemMapper.toItemDtoBookingsComments(item)).thenReturn(itemDto);
-        when(itemRepository.findAllByText(text, pageable)).thenReturn(items);
-        when(commentMapper.toCommentDto(comment)).thenReturn(commentDto);
+        when(commentMapper.toCommentDto(commentView)).thenReturn(commentDto);
 
-        assertEquals(itemService.findAllByText(from, size, text, userId), itemDtos);
+        assertEquals(itemService.findAllByText(from, size, text, userId + 1), itemDtos);
+        verify(itemRepository, never()).findAvailableByText(any(), any());
+        verify(searchIndex).deleted(itemId + 1);
     }
 
     @Test
@@ -190,14 +243,28 @@ public class ItemServiceTests {
     @Test
     public void findDtoByIdTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(commentRepository.findAllByItemId(any(Long.class))).thenReturn(comments);
+        when(commentRepository.findViewsByItemIdIn(List.of(itemId))).thenReturn(commentViews);
         when(itemMapper.toItemDtoBookingsComments(item)).thenReturn(itemDto);
-        when(commentMapper.toCommentDto(comment)).thenReturn(commentDto);
+        when(commentMapper.toCommentDto(commentView)).thenReturn(commentDto);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
         assertEquals(itemService.findDtoById(itemId, userId), itemDto);
     }
 
+    @Test
+    public void findDtoByIdNotModifiedTest() {
+        when(userService.userExistById(any(Long.class))).thenReturn(true);
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        List<String> tags = new ArrayList<>();
+
+        assertNull(itemService.findDtoById(itemId, userId, tag -> tags.add(tag)));
+        verify(commentRepository, never()).findViewsByItemIdIn(any());
+
+        item.setVersion(item.getVersion() + 1);
+        itemService.findDtoById(itemId, userId, tag -> tags.add(tag));
+        assertNotEquals(tags.get(0), tags.get(1));
+    }
+
     @Test
     public void findDtoByIdErrorTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(false);
@@ -242,10 +309,11 @@ public class ItemServiceTests {
         when(itemRepository.save(any(Item.class))).thenReturn(item);
         when(userService.userExistById(any(Long.class))).thenReturn(true);
         when(itemMapper.toItemDto(any(Item.class))).thenReturn(shortItemDto);
-        when(itemRepository.findAll()).thenReturn(List.of(item));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
         assertEquals(shortItemDto, itemService.updateItem(itemId, shortItemDto, userId));
+        verify(entityVersions).itemChanged(item);
+        verify(cacheInvalidation).itemChanged(item);
     }
 
     @Test
@@ -259,7 +327,7 @@ public class ItemServiceTests {
         assertEquals("Пользователя, от лица которого производится изменение вещи, не существует", thrown.getMessage());
 
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemRepository.findAll()).thenReturn(List.of());
+        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
         thrown = catchThrowable(() -> {
             itemService.updateItem(itemId, shortItemDto, userId);
         });
@@ -267,7 +335,6 @@ public class ItemServiceTests {
         assertThat(thrown.getMessage()).isNotBlank();
         assertEquals("Вещи, которую вы пытаетесь изменить, не существует", thrown.getMessage());
 
-        when(itemRepository.findAll()).thenReturn(List.of(item));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         thrown = catchThrowable(() -> {
             itemService.updateItem(itemId, shortItemDto, userId + 1L);
@@ -281,11 +348,12 @@ public class ItemServiceTests {
     @Test
     public void deleteTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemRepository.findAll()).thenReturn(List.of(item));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
 
         itemService.deleteItem(itemId, userId);
         verify(itemRepository).deleteById(itemId);
+        verify(entityCacheEviction).itemDeleted(itemId);
+        verify(cacheInvalidation).itemChanged(item);
     }
 
     @Test
@@ -299,7 +367,7 @@ public class ItemServiceTests {
         assertEquals("Пользователя, от лица которого удаляется комментарий, не существует", thrown.getMessage());
 
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemRepository.findAll()).thenReturn(List.of());
+        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
         thrown = catchThrowable(() -> {
             itemService.deleteItem(itemId, userId);
         });
@@ -307,7 +375,6 @@ public class ItemServiceTests {
         assertThat(thrown.getMessage()).isNotBlank();
         assertEquals("Вещи, которую вы пытаетесь удалить, не существует", thrown.getMessage());
 
-        when(itemRepository.findAll()).thenReturn(List.of(item));
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         thrown = catchThrowable(() -> {
             itemService.deleteItem(itemId, userId + 1L);
@@ -321,16 +388,16 @@ public class ItemServiceTests {
     @Test
     public void saveCommentTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemRepository.findAll()).thenReturn(List.of(item));
         when(itemRepository.findById(any(Long.class))).thenReturn(Optional.of(item));
         when(userService.findById(any(Long.class))).thenReturn(user);
-        when(bookingRepository.findAllByItemIdAndEndBeforeOrderByEndDesc(any(Long.class),
-                any(LocalDateTime.class))).thenReturn(List.of(booking));
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(eq(itemId), eq(bookerId),
+                any(LocalDateTime.class))).thenReturn(true);
         when(commentMapper.newtoComment(any(CommentDto.class),
                 any(Item.class), any(User.class), any(LocalDateTime.class))).thenReturn(comment);
         when(commentMapper.toCommentDto(any(Comment.class))).thenReturn(commentDto);
         when(commentRepository.save(comment)).thenReturn(comment);
         assertEquals(commentDto, itemService.createComment(commentDto, itemId, bookerId));
+        verify(entityVersions).increment(item);
     }
 
     @Test
@@ -344,7 +411,7 @@ public class ItemServiceTests {
         assertEquals("Пользователя, от лица которого создается комментарий, не существует", thrown.getMessage());
 
         when(userService.userExistById(any(Long.class))).thenReturn(true);
-        when(itemRepository.findAll()).thenReturn(List.of());
+        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
         thrown = catchThrowable(() -> {
             itemService.createComment(commentDto, itemId, userId);
         });
@@ -352,7 +419,7 @@ public class ItemServiceTests {
         assertThat(thrown.getMessage()).isNotBlank();
         assertEquals("Вещи, к которой создается комментарий, не существует", thrown.getMessage());
 
-        when(itemRepository.findAll()).thenReturn(List.of(item));
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         CommentDto noTextCommentDto = new CommentDto(commentId, "", userName, created);
         thrown = catchThrowable(() -> {
             itemService.createComment(noTextCommentDto, itemId, userId);
@@ -361,10 +428,8 @@ public class ItemServiceTests {
         assertThat(thrown.getMessage()).isNotBlank();
         assertEquals("Поле текста комментария не  может быть пустым", thrown.getMessage());
 
-        User user2 = new User(2L, "Dog", "Wrong");
-        Booking booking = new Booking(bookingId, start, end, item, user2, StatusOfBooking.WAITING);
-        when(bookingRepository.findAllByItemIdAndEndBeforeOrderByEndDesc(any(Long.class),
-                any(LocalDateTime.class))).thenReturn(List.of(booking));
+        when(bookingRepository.existsByItemIdAndBookerIdAndEndBefore(eq(itemId), eq(userId),
+                any(LocalDateTime.class))).thenReturn(false);
         thrown = catchThrowable(() -> {
             itemService.createComment(commentDto, itemId, userId);
         });
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.service.ItemTextIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ItemTextIndexTests {
+
+    @Test
+    void searchBySubstringIgnoringCaseTest() {
+        ItemTextIndex index = new ItemTextIndex();
+        index.put(1L, "Name", "Some description");
+        index.put(2L, "hehehe", "pleaseHelp");
+        index.put(3L, "Yan", "EasyPeasy");
+
+        assertEquals(List.of(2L, 3L), index.search("eas", 0, 10));
+        assertEquals(List.of(1L), index.search("DeScr", 0, 10));
+        assertEquals(List.of(), index.search("drill", 0, 10));
+    }
+
+    @Test
+    void searchRussianTextTest() {
+        ItemTextIndex index = new ItemTextIndex();
+        index.put(1L, "Ёлочная гирлянда", "Новогодняя");
+        index.put(2L, "Дрель", "Аккумуляторная, с ёмким аккумулятором");
+
+        assertEquals(List.of(1L), index.search("елоч", 0, 10));
+        assertEquals(List.of(2L), index.search("ЕМК", 0, 10));
+        assertEquals(List.of(2L), index.search("дрель аккумулятор", 0, 10));
+    }
+
+    @Test
+    void longQueryMatchesWithinOneTokenTest() {
+        ItemTextIndex index = new ItemTextIndex();
+        index.put(1L, "abcd xbcde", "");
+        index.put(2L, "zabcdez", "");
+
+        // все триграммы "abcde" есть у первой вещи, но в разных словах
+        assertEquals(List.of(2L), index.search("abcde", 0, 10));
+        assertEquals(List.of(1L, 2L), index.search("bcd", 0, 10));
+    }
+
+    @Test
+    void rankingAndPagingTest() {
+        ItemTextIndex index = new ItemTextIndex();
+        index.put(1L, "Hammer", "Heavy drill bit set");
+        index.put(2L, "Power drill", "Cordless");
+        index.put(3L, "Drill", "Corded");
+
+        assertEquals(List.of(2L, 3L, 1L), index.search("drill", 0, 10));
+        assertEquals(List.of(3L, 1L), index.search("drill", 1, 2));
+    }
+
+    @Test
+    void incrementalUpdateTest() {
+        ItemTextIndex index = new ItemTextIndex();
+        index.put(1L, "Drill", "Cordless");
+        index.put(1L, "Saw", "Cordless");
+        assertEquals(List.of(), index.search("drill", 0, 10));
+        assertEquals(List.of(1L), index.search("saw", 0, 10));
+
+        index.remove(1L);
+        assertEquals(List.of(), index.search("cordless", 0, 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void randomizedComparisonWithBruteForceTest() {
+        Random random = new Random(7);
+        String[] words = {"drill", "saw", "ladder", "hammer", "дрель", "пила", "лестница", "молоток"};
+        ItemTextIndex index = new ItemTextIndex();
+        List<String[]> texts = new ArrayList<>();
+        for (int id = 0; id < 300; id++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+            String description = words[random.nextInt(words.length)];
+            texts.add(new String[]{name, description});
+            index.put((long) id, name, description);
+        }
+        for (int id = 0; id < 300; id += 3) {
+            index.remove((long) id);
+            texts.set(id, null);
+        }
+        for (int q = 0; q < 200; q++) {
+            String word = words[random.nextInt(words.length)];
+            int from = random.nextInt(word.length());
+            String query = word.substring(from, from + 1 + random.nextInt(word.length() - from));
+            assertEquals(bruteForce(texts, query), index.search(query.toUpperCase(Locale.ROOT), 0, 300));
+        }
+    }
+
+    private List<Long> bruteForce(List<String[]> texts, String query) {
+        List<Long> byName = new ArrayList<>();
+        List<Long> byDescription = new ArrayList<>();
+        for (int id = 0; id < texts.size(); id++) {
+            String[] text = texts.get(id);
+            if (text == null) {
+                continue;
+            }
+            if (text[0].contains(query)) {
+                byName.add((long) id);
+            } else if (text[1].contains(query)) {
+                byDescription.add((long) id);
+            }
+        }
+        byName.addAll(byDescription);
+        return byName;
+    }
+}
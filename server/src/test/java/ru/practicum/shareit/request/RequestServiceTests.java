@@ -9,6 +9,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.ExportPages;
 import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.RequestMapper;
@@ -17,6 +18,7 @@ import ru.practicum.shareit.request.service.RequestServiceImpl;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +26,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -92,17 +96,41 @@ public class RequestServiceTests {
     void findAllByOwnerTest() {
         when(userService.userExistById(any(Long.class))).thenReturn(false);
         Throwable thrown = catchThrowable(() -> {
-            requestService.findAllByOwnerWithResponses(userId);
+            requestService.findAllByOwnerWithResponses(from, null, userId);
         });
         assertThat(thrown).isInstanceOf(NotFoundAnythingException.class);
         assertThat(thrown.getMessage()).isNotBlank();
         assertEquals("Пользователя, от лица которого происходит поиск запросов, не существует", thrown.getMessage());
 
-        when(requestRepository.findAllByRequestorId(userId)).thenReturn(requests);
+        when(requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId, Pageable.unpaged())).thenReturn(requests);
+        when(requestRepository.findAllByRequestorIdOrderByCreatedDesc(userId, pageable)).thenReturn(requests);
         when(userService.userExistById(any(Long.class))).thenReturn(true);
         when(requestMapper.toListRequestDto(requests)).thenReturn(requestDtos);
 
-        assertEquals(requestDtos, requestService.findAllByOwnerWithResponses(userId));
+        assertEquals(requestDtos, requestService.findAllByOwnerWithResponses(from, null, userId));
+        assertEquals(requestDtos, requestService.findAllByOwnerWithResponses(from, size, userId));
+    }
+
+    @Test
+    void streamAllByOwnerTest() {
+        LocalDateTime created = LocalDateTime.now();
+        List<ItemRequestDto> stored = new ArrayList<>();
+        for (long i = ExportPages.PAGE_SIZE + 50; i > 0; i--) {
+            stored.add(new ItemRequestDto(i, "Description " + i, created));
+        }
+        Pageable streamPage = PageRequest.of(0, ExportPages.PAGE_SIZE);
+        ItemRequestDto lastOfFirstPage = stored.get(ExportPages.PAGE_SIZE - 1);
+        when(requestRepository.findStreamPage(userId, streamPage))
+                .thenReturn(new ArrayList<>(stored.subList(0, ExportPages.PAGE_SIZE)));
+        when(requestRepository.findStreamPageAfter(userId, created, lastOfFirstPage.getId(), streamPage))
+                .thenReturn(new ArrayList<>(stored.subList(ExportPages.PAGE_SIZE, stored.size())));
+        when(requestMapper.withItems(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<ItemRequestDto> streamed = new ArrayList<>();
+        requestService.streamAllByOwnerWithResponses(userId, streamed::add);
+
+        assertEquals(stored, streamed);
+        verify(requestMapper, times(2)).withItems(anyList());
     }
 
     @Test
@@ -147,14 +175,14 @@ public class RequestServiceTests {
     @Test
     public void updateTest() {
         when(requestRepository.save(any(ItemRequest.class))).thenReturn(request);
-        when(requestRepository.findAll()).thenReturn(List.of(request));
+        when(requestRepository.existsById(request.getId())).thenReturn(true);
 
         assertEquals(request, requestService.updateItemRequest(request));
     }
 
     @Test
     public void updateNotExistTest() {
-        when(requestRepository.findAll()).thenReturn(List.of());
+        when(requestRepository.existsById(request.getId())).thenReturn(false);
 
         Throwable thrown = catchThrowable(() -> {
             requestService.updateItemRequest(request);
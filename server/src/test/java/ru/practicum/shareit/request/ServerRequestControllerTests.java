@@ -9,6 +9,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.request.controller.ServiceItemRequestController;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -17,13 +19,18 @@ import ru.practicum.shareit.request.service.RequestService;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ServiceItemRequestController.class)
@@ -97,7 +104,7 @@ public class ServerRequestControllerTests {
 
     @Test
     void findAllByOwnerWithResponses() throws Exception {
-        when(requestService.findAllByOwnerWithResponses(userId)).thenReturn(requestDtos);
+        when(requestService.findAllByOwnerWithResponses(0, null, userId)).thenReturn(requestDtos);
 
         String result = mvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", userId)
@@ -110,13 +117,49 @@ public class ServerRequestControllerTests {
                 .getResponse()
                 .getContentAsString();
 
-        verify(requestService, Mockito.times(1)).findAllByOwnerWithResponses(userId);
+        verify(requestService, Mockito.times(1)).findAllByOwnerWithResponses(0, null, userId);
         assertEquals(result, mapper.writeValueAsString(requestDtos));
     }
 
+    @Test
+    void streamAllByOwnerWithResponses() throws Exception {
+        List<ItemRequestDto> streamed = List.of(itemRequestDto,
+                new ItemRequestDto(requestId + 1, "Other description", LocalDateTime.now(), List.of()));
+        doAnswer(invocation -> {
+            Consumer<ItemRequestDto> action = invocation.getArgument(1);
+            streamed.forEach(action);
+            return null;
+        }).when(requestService).streamAllByOwnerWithResponses(eq(userId), any());
+
+        MvcResult started = mvc.perform(get("/requests/stream")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String result = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        verify(requestService, Mockito.times(1)).checkUserExists(userId);
+        assertEquals(mapper.writeValueAsString(streamed), result);
+    }
+
+    @Test
+    void streamAllByUnknownOwner() throws Exception {
+        doThrow(new NotFoundAnythingException("Пользователя, от лица которого происходит поиск запросов, не существует"))
+                .when(requestService).checkUserExists(userId);
+
+        mvc.perform(get("/requests/stream")
+                        .header("X-Sharer-User-Id", userId))
+                .andExpect(status().isNotFound());
+
+        verify(requestService, never()).streamAllByOwnerWithResponses(any(), any());
+    }
+
     @Test
     void findRequestById() throws Exception {
-        when(requestService.findByIdWithResponses(requestId, userId)).thenReturn(itemRequestDto);
+        when(requestService.findByIdWithResponses(eq(requestId), eq(userId), any())).thenReturn(itemRequestDto);
 
         mvc.perform(get("/requests/{requestId}", requestId)
                         .header("X-Sharer-User-Id", userId)
@@ -128,6 +171,6 @@ public class ServerRequestControllerTests {
                 .andExpect(jsonPath("$.id", is(request.getId()), Long.class))
                 .andExpect(jsonPath("$.description", is(request.getDescription())));
 
-        verify(requestService, Mockito.times(1)).findByIdWithResponses(requestId, userId);
+        verify(requestService, Mockito.times(1)).findByIdWithResponses(eq(requestId), eq(userId), any());
     }
 }
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.user.model.User;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserRepositoryTests {
+    private final UserRepository userRepository;
+    private final TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private User user;
+
+    @BeforeEach
+    void init() {
+        for (int i = 0; i < 50; i++) {
+            userRepository.save(new User("User" + i, "user" + i + "@mail.com"));
+        }
+        user = userRepository.save(new User("Anastasia", "anastasia.svir@mail.com"));
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void existsByIdTest() {
+        assertTrue(userRepository.existsById(user.getId()));
+        assertFalse(userRepository.existsById(user.getId() + 1));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void existsByEmailTest() {
+        assertTrue(userRepository.existsByEmail(user.getEmail()));
+        assertTrue(userRepository.existsByEmailAndIdNot(user.getEmail(), user.getId() + 1));
+        assertFalse(userRepository.existsByEmailAndIdNot(user.getEmail(), user.getId()));
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
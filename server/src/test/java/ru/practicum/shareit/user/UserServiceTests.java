@@ -7,6 +7,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.EntityCacheEviction;
+import ru.practicum.shareit.EntityVersions;
+import ru.practicum.shareit.ResponseCacheInvalidation;
 import ru.practicum.shareit.exceptions.NotFoundAnythingException;
 import ru.practicum.shareit.exceptions.SameFieldException;
 import ru.practicum.shareit.exceptions.SaveUserException;
@@ -31,6 +34,15 @@ public class UserServiceTests {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ResponseCacheInvalidation cacheInvalidation;
+
+    @Mock
+    private EntityCacheEviction entityCacheEviction;
+
+    @Mock
+    private EntityVersions entityVersions;
+
     private Long userId;
     private User user;
     private UserDto userDto;
@@ -89,18 +101,24 @@ public class UserServiceTests {
     @Test
     public void updateTest() {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.existsByEmailAndIdNot(userDto.getEmail(), userId)).thenReturn(false);
+        when(userRepository.existsById(userId)).thenReturn(true);
         when(userRepository.save(user)).thenReturn(user);
 
         assertEquals(user, userService.updateUser(userId, userDto));
+        verify(cacheInvalidation).userChanged(userId);
+        verify(entityVersions).userRenamed(userId);
+
+        // смена только email не затрагивает отзывы
+        userService.updateUser(userId, new UserDto(null, "other.svir@mail.com"));
+        verify(entityVersions, times(1)).userRenamed(userId);
     }
 
     @Test
     public void updateErrorsTest() {
         userDto = new UserDto("Anastasia", "update.svir@mail.com");
-        User user2 = new User("Anastasiaa", "update.svir@mail.com");
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(userRepository.findAll()).thenReturn(List.of(user2));
+        when(userRepository.existsByEmailAndIdNot(userDto.getEmail(), userId)).thenReturn(true);
 
         Throwable thrown = catchThrowable(() -> {
             userService.updateUser(userId, userDto);
@@ -109,7 +127,8 @@ public class UserServiceTests {
         assertThat(thrown.getMessage()).isNotBlank();
         assertEquals("Данный email уже зарегистрирован", thrown.getMessage());
 
-        when(userRepository.findAll()).thenReturn(List.of());
+        when(userRepository.existsByEmailAndIdNot(userDto.getEmail(), userId)).thenReturn(false);
+        when(userRepository.existsById(userId)).thenReturn(false);
         thrown = catchThrowable(() -> {
             userService.updateUser(userId, userDto);
         });
@@ -123,26 +142,33 @@ public class UserServiceTests {
     public void deleteTest() {
         userService.deleteById(userId);
 
+        verify(entityVersions).userDeleted(userId);
         verify(userRepository).deleteById(userId);
+        verify(cacheInvalidation).userChanged(userId);
+        verify(entityCacheEviction).userDeleted(userId);
     }
 
     @Test
     public void emailExistCheckTest() {
         String email = "update.svir@mail.com";
 
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.existsByEmailAndIdNot(email, userId + 1)).thenReturn(true);
         assertEquals(true, userService.emailAlreadyExist(email, userId + 1));
 
-        when(userRepository.findAll()).thenReturn(List.of());
+        when(userRepository.existsByEmailAndIdNot(email, userId + 1)).thenReturn(false);
         assertEquals(false, userService.emailAlreadyExist(email, userId + 1));
+
+        when(userRepository.existsByEmail(email)).thenReturn(true);
+        assertEquals(true, userService.emailAlreadyExist(email, null));
     }
 
     @Test
     public void userExistCheckTest() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
         assertEquals(true, userService.userExistById(userId));
 
-        when(userRepository.findAll()).thenReturn(List.of());
+        when(userRepository.existsById(userId)).thenReturn(false);
         assertEquals(false, userService.userExistById(userId));
+        assertEquals(false, userService.userExistById(null));
     }
 }